@@ -0,0 +1,72 @@
+package com.example.product_catalog_api.benchmark;
+
+import com.example.product_catalog_api.dto.BatchResult;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for one bulk import of {@code rows} products through the batched JDBC path
+ * (rows/s = rows / score). Larger imports: -Djmh.args="BatchImport -p rows=1000000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BatchImportBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private JdbcTemplate jdbcTemplate;
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = CatalogState.startApplication();
+        productService = context.getBean(ProductService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void generate() {
+        products = CatalogState.generate(rows, new Random(CatalogState.SEED));
+    }
+
+    @TearDown(Level.Invocation)
+    public void truncate() {
+        jdbcTemplate.update("DELETE FROM products");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public BatchResult createProducts() {
+        return productService.createProducts(products);
+    }
+}
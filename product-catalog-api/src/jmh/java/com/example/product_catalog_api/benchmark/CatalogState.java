@@ -0,0 +1,91 @@
+package com.example.product_catalog_api.benchmark;
+
+import com.example.product_catalog_api.ProductCatalogApiApplication;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.repository.ProductRepository;
+import com.example.product_catalog_api.service.ProductService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The application (without a web server) on the embedded H2 database from the test
+ * configuration, seeded with a deterministic catalog so runs are comparable.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    static final long SEED = 42L;
+
+    private static final String[] ADJECTIVES = {
+            "Wireless", "Compact", "Premium", "Ergonomic", "Vintage", "Portable", "Smart", "Classic"};
+    private static final String[] NOUNS = {
+            "Keyboard", "Mouse", "Desk", "Chair", "Lamp", "Monitor", "Speaker", "Backpack", "Bottle", "Jacket"};
+    private static final String[] MATERIALS = {"oak", "steel", "cotton", "leather", "aluminium", "bamboo"};
+    private static final String[] CATEGORIES = {
+            "Electronics", "Furniture", "Apparel", "Outdoor", "Kitchen", "Office", "Toys", "Garden"};
+
+    // Rotated through by the search benchmarks: prefix, substring and multi-term queries
+    static final String[] QUERIES = {"wire", "desk", "eyboar", "premium lamp", "oak chair", "smart spe"};
+
+    @Param({"10000"})
+    public int products;
+
+    ConfigurableApplicationContext context;
+    ProductService productService;
+    ProductRepository productRepository;
+    long minId;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = startApplication();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productService.createProducts(generate(products, new Random(SEED)));
+        minId = productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1))
+                .get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    String nextQuery() {
+        query = (query + 1) % QUERIES.length;
+        return QUERIES[query];
+    }
+
+    static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(ProductCatalogApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("logging.level.root=WARN")
+                .run();
+    }
+
+    static List<Product> generate(int count, Random random) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                    + " " + i;
+            String description = "Made of " + MATERIALS[random.nextInt(MATERIALS.length)];
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            products.add(new Product(name, description, price, CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.product_catalog_api.benchmark;
+
+import com.example.product_catalog_api.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization CPU and bytes on the wire for a 10k product response (the
+ * streaming GET /api/products path) per format, with and without gzip at the
+ * default level Tomcat uses. The size of one response is printed once per trial
+ * ("bytes on the wire: ...") in the benchmark output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class EncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"none", "gzip"})
+    public String compression;
+
+    @Param({"10000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<Product> products;
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "cbor" -> CBORMapper.builder().build();
+            case "smile" -> SmileMapper.builder().build();
+            default -> JsonMapper.builder().build();
+        };
+        products = CatalogState.generate(size, new Random(CatalogState.SEED));
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 12, 0);
+        long id = 1;
+        for (Product product : products) {
+            product.setId(id++);
+            product.setCreatedAt(timestamp);
+            product.setUpdatedAt(timestamp);
+            product.setVersion(0L);
+        }
+        System.out.printf("%nbytes on the wire: %s %s %d%n", format, compression, write());
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        OutputStream out = compression.equals("gzip") ? new GZIPOutputStream(counter, 8192) : counter;
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            generator.writeStartArray();
+            for (Product product : products) {
+                generator.writePOJO(product);
+            }
+            generator.writeEndArray();
+        }
+        out.close();
+        return counter.count;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.product_catalog_api.benchmark;
+
+import com.example.product_catalog_api.aggregate.PriceCents;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing every price in the catalog: a BigDecimal reduce (one allocation per
+ * product), a checked long loop, and the {@link PriceCents} kernel on one thread
+ * and split across the common fork-join pool. All four produce the same value.
+ * The BigDecimal array alone is about 2 GB at 50M products, hence the heap size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InventoryValueBenchmark {
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int size;
+
+    private BigDecimal[] prices;
+    private long[] cents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new BigDecimal[size];
+        cents = new long[size];
+        for (int i = 0; i < size; i++) {
+            cents[i] = random.nextLong(1, 10_000_000);
+            prices[i] = PriceCents.toPrice(cents[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalReduce() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal price : prices) {
+            total = total.add(price);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal addExactLoop() {
+        long total = 0;
+        for (long value : cents) {
+            total = Math.addExact(total, value);
+        }
+        return PriceCents.toPrice(total);
+    }
+
+    @Benchmark
+    public long[] kernelSequential() {
+        return PriceCents.sequentialHalves(cents, 0, size);
+    }
+
+    @Benchmark
+    public BigDecimal kernelForkJoin() {
+        return PriceCents.sum(cents, 0, size);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.product_catalog_api.benchmark;
+
+import com.example.product_catalog_api.dto.SearchResult;
+import com.example.product_catalog_api.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductServiceImpl hot paths against embedded H2. The *Baseline benchmarks run
+ * the query the service used before it had in-memory structures, so the gap stays
+ * visible across releases.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProductServiceBenchmark {
+
+    // one generator per benchmark thread, seeded like the catalog, so every run reads and writes the same rows
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void seed(ThreadParams threads) {
+            random = new SplittableRandom(CatalogState.SEED + threads.getThreadIndex());
+        }
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts(CatalogState state) {
+        return state.productService.getAllProducts();
+    }
+
+    @Benchmark
+    public void streamAllProducts(CatalogState state, Blackhole blackhole) {
+        state.productService.streamAllProducts(blackhole::consume);
+    }
+
+    // ?fields= list views: id, name, price and category as records, no managed entities
+    @Benchmark
+    public void streamAllProductSummaries(CatalogState state, Blackhole blackhole) {
+        state.productService.streamAllProductSummaries(blackhole::consume);
+    }
+
+    // in-memory index, ranked and capped at catalog.search.max-results
+    @Benchmark
+    public SearchResult<Product> search(CatalogState state) {
+        return state.productService.searchProductsByName(state.nextQuery(), null);
+    }
+
+    // LIKE '%x%' on name, what search used before the index
+    @Benchmark
+    public List<Product> searchBaseline(CatalogState state) {
+        return state.productRepository.findByNameContainingIgnoreCase(state.nextQuery());
+    }
+
+    @Benchmark
+    public BigDecimal calculateInventoryValue(CatalogState state) {
+        return state.productService.calculateInventoryValue();
+    }
+
+    @Benchmark
+    public BigDecimal calculateInventoryValueBaseline(CatalogState state) {
+        return state.productRepository.findAll().stream()
+                .map(Product::getPrice)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public long getCategoryCount(CatalogState state) {
+        return state.productService.getCategoryCount();
+    }
+
+    @Benchmark
+    public long getCategoryCountBaseline(CatalogState state) {
+        return state.productRepository.findAll().stream()
+                .map(Product::getCategory)
+                .filter(category -> category != null && !category.trim().isEmpty())
+                .distinct()
+                .count();
+    }
+
+    @Benchmark
+    public Optional<Product> getProductById(CatalogState state, ThreadRandom random) {
+        return state.productService.getProductById(randomId(state, random));
+    }
+
+    @Benchmark
+    public Product updateProduct(CatalogState state, ThreadRandom random) {
+        Product details = new Product();
+        details.setPrice(BigDecimal.valueOf(random.random.nextInt(100_000), 2));
+        return state.productService.updateProduct(randomId(state, random), details);
+    }
+
+    private static long randomId(CatalogState state, ThreadRandom random) {
+        return state.minId + random.random.nextInt(state.products);
+    }
+}
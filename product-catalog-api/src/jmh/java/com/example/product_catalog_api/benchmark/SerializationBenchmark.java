@@ -0,0 +1,71 @@
+package com.example.product_catalog_api.benchmark;
+
+import com.example.product_catalog_api.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of product lists, no database involved: one big array
+ * (the old GET /api/products) versus per-item writes into a generator (the
+ * streaming path).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = CatalogState.generate(size, new Random(CatalogState.SEED));
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 12, 0);
+        long id = 1;
+        for (Product product : products) {
+            product.setId(id++);
+            product.setCreatedAt(timestamp);
+            product.setUpdatedAt(timestamp);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeList() {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public void writeStreaming() {
+        try (JsonGenerator generator = objectMapper.createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (Product product : products) {
+                generator.writePOJO(product);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.product_catalog_api.benchmark;
+
+import com.example.product_catalog_api.ProductCatalogApiApplication;
+import com.example.product_catalog_api.repository.ProductRepository;
+import com.example.product_catalog_api.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request handling over HTTP while the database is the bottleneck, with Tomcat on
+ * platform threads and on virtual threads (spring.threads.virtual.enabled).
+ *
+ * Most clients run full exports, each holding one of only two connections for the
+ * whole stream, so they queue on the connection limiter; a few clients read
+ * products that are already in the cache. With more clients than workers the
+ * cached reads can wait behind blocked exports on platform threads, which virtual
+ * threads would avoid. The worker pool is scaled down from 200 to 32 so a single
+ * machine can exhaust it. Every request must return 200.
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ThreadModeLoad"
+ *
+ * On one CPU the export is CPU-bound rather than waiting, and virtual threads come
+ * out behind: cachedRead p50 42 ms platform vs 116 ms virtual, p99 65 vs 187 ms;
+ * export p50 113 vs 124 ms. Hence spring.threads.virtual.enabled stays off; rerun
+ * on the production core count before changing it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ThreadModeLoadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"2000"})
+    public int products;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long minId;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(ProductCatalogApiApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .logStartupInfo(false)
+                .properties("logging.level.root=WARN",
+                        "server.port=0",
+                        "server.tomcat.threads.max=32",
+                        "spring.datasource.hikari.maximum-pool-size=2",
+                        "spring.threads.virtual.enabled=" + virtualThreads)
+                .run();
+        context.getBean(ProductService.class)
+                .createProducts(CatalogState.generate(products, new Random(CatalogState.SEED)));
+        minId = context.getBean(ProductRepository.class).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1))
+                .get(0).getId();
+
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api/products";
+        for (int i = 0; i < products; i++) {
+            get("/" + (minId + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    @Group("slowDatabase")
+    @GroupThreads(48)
+    public int export() throws IOException, InterruptedException {
+        return get("/export?format=csv");
+    }
+
+    @Benchmark
+    @Group("slowDatabase")
+    @GroupThreads(4)
+    public int cachedRead(ProductServiceBenchmark.ThreadRandom random) throws IOException, InterruptedException {
+        return get("/" + (minId + random.random.nextInt(products)));
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + status);
+        }
+        return status;
+    }
+}
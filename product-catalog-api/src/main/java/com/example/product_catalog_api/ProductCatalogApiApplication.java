@@ -2,8 +2,10 @@ package com.example.product_catalog_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProductCatalogApiApplication {
 
 	public static void main(String[] args) {
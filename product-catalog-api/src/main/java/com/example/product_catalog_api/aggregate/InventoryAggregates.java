@@ -0,0 +1,258 @@
+package com.example.product_catalog_api.aggregate;
+
+import com.example.product_catalog_api.cache.CatalogVersion;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.repository.CategoryCount;
+import com.example.product_catalog_api.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Running inventory totals (value, product count, per-category counts) kept up to
+ * date from {@link ProductChangedEvent}s, so the dashboard stats are O(1) reads
+ * instead of findAll() scans. The value is held in {@link PriceCents}, so applying
+ * a change is a long addition rather than a new BigDecimal.
+ *
+ * The totals are seeded from database aggregates at startup and reconciled
+ * periodically to repair any drift (e.g. rows changed outside this service).
+ * A transaction holds the commit gate from just before its commit until its
+ * changes are applied here, and a reconcile closes the gate while it reads, so
+ * every change is either in the database aggregates or applied after them -
+ * never both, never neither. Commits wait for at most the reconcile's reads.
+ * A reconcile that changes the totals bumps the {@link CatalogVersion}, as it is
+ * the only way changes made elsewhere reach the cached count and stats responses.
+ */
+@Component
+public class InventoryAggregates {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAggregates.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    private TransactionTemplate reconcileTransaction;
+
+    private record DatabaseTotals(long valueCents, long count, List<CategoryCount> categories) {
+    }
+
+    private final Object lock = new Object();
+
+    // read-held by committing transactions, write-held by reconcile while it reads
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    // guarded by lock
+    private final Map<String, Long> categoryCounts = new HashMap<>();
+
+    // written under lock, read without it
+    private volatile long totalCents;
+    private volatile long productCount;
+    private volatile int distinctCategories;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public BigDecimal getTotalValue() {
+        return PriceCents.toPrice(totalCents);
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public long getCategoryCount() {
+        return distinctCategories;
+    }
+
+    public Map<String, Long> getCategoryCounts() {
+        synchronized (lock) {
+            return new HashMap<>(categoryCounts);
+        }
+    }
+
+    // read-write so it runs on the primary: a lagging replica could miss changes already
+    // applied; read committed so the reads see every commit made before the gate closed
+    @PostConstruct
+    void createReconcileTransaction() {
+        reconcileTransaction = new TransactionTemplate(transactionManager);
+        reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Collects the change for the surrounding transaction and applies it once that
+     * commits; a rolled back transaction never reaches the totals.
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitGate.readLock().lock();
+            try {
+                apply(List.of(event));
+            } finally {
+                commitGate.readLock().unlock();
+            }
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    private void apply(List<ProductChangedEvent> events) {
+        synchronized (lock) {
+            for (ProductChangedEvent event : events) {
+                if (event.getBefore() != null) {
+                    remove(event.getBefore());
+                }
+                if (event.getAfter() != null) {
+                    add(event.getAfter());
+                }
+            }
+            distinctCategories = categoryCounts.size();
+        }
+    }
+
+    // The changes of one transaction, holding the gate from before its commit until they are applied
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<ProductChangedEvent> events = new ArrayList<>();
+        private boolean gated;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitGate.readLock().lock();
+            gated = true;
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InventoryAggregates.this);
+            if (gated) {
+                commitGate.readLock().unlock();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Replaces the running totals with fresh database aggregates, read with the
+     * commit gate closed so no change is half way between the database and here.
+     */
+    @Scheduled(fixedDelayString = "${catalog.aggregates.reconcile-interval:PT5M}",
+            initialDelayString = "${catalog.aggregates.reconcile-interval:PT5M}")
+    public void reconcile() {
+        reconcileTransaction.executeWithoutResult(status -> {
+            // take the connection before closing the gate: the commits queued behind it hold theirs
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            commitGate.writeLock().lock();
+            try {
+                replaceTotals(new DatabaseTotals(PriceCents.of(productRepository.sumPrice()),
+                        productRepository.count(), productRepository.countByCategory()));
+            } finally {
+                commitGate.writeLock().unlock();
+            }
+        });
+    }
+
+    private void replaceTotals(DatabaseTotals totals) {
+        long dbCents = totals.valueCents();
+        long dbCount = totals.count();
+        List<CategoryCount> dbCategories = totals.categories();
+
+        Map<String, Long> dbCategoryCounts = new HashMap<>();
+        for (CategoryCount row : dbCategories) {
+            dbCategoryCounts.merge(row.getCategory(), row.getCount(), Long::sum);
+        }
+
+        boolean changed;
+        synchronized (lock) {
+            if (ready && (dbCount != productCount || dbCents != totalCents)) {
+                log.warn("Inventory aggregates drifted (count {} -> {}, value {} -> {})",
+                        productCount, dbCount, PriceCents.toPrice(totalCents), PriceCents.toPrice(dbCents));
+            }
+            changed = dbCount != productCount || dbCents != totalCents || !dbCategoryCounts.equals(categoryCounts);
+
+            categoryCounts.clear();
+            categoryCounts.putAll(dbCategoryCounts);
+            totalCents = dbCents;
+            productCount = dbCount;
+            distinctCategories = categoryCounts.size();
+            ready = true;
+        }
+        if (changed) {
+            catalogVersion.changed();
+        }
+    }
+
+    private void add(ProductState state) {
+        productCount++;
+        if (state.price() != null) {
+            totalCents = Math.addExact(totalCents, PriceCents.of(state.price()));
+        }
+        if (hasCategory(state.category())) {
+            categoryCounts.merge(state.category(), 1L, Long::sum);
+        }
+    }
+
+    private void remove(ProductState state) {
+        productCount--;
+        if (state.price() != null) {
+            totalCents = Math.subtractExact(totalCents, PriceCents.of(state.price()));
+        }
+        if (hasCategory(state.category())) {
+            // drop the key once the last product leaves so size() stays the distinct count
+            categoryCounts.computeIfPresent(state.category(), (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static boolean hasCategory(String category) {
+        return category != null && !category.trim().isEmpty();
+    }
+}
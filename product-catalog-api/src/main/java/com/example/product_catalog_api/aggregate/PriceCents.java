@@ -0,0 +1,146 @@
+package com.example.product_catalog_api.aggregate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Prices as long cents. The price column has two decimals, so a price is its
+ * unscaled value at scale 2 and sums of prices are plain long additions; a
+ * BigDecimal is only created for the result.
+ *
+ * {@link #sum} gives exactly what adding the prices as BigDecimals gives, scale
+ * included. It adds the high and the low 32 bits of every value in two separate
+ * accumulators: both are branch-free long additions the JIT can vectorize, and
+ * neither can overflow for fewer than 2^31 values, which covers any array. Large
+ * arrays are split across the common fork-join pool.
+ */
+public final class PriceCents {
+
+    public static final int SCALE = 2;
+
+    // below this many values a single thread is faster than splitting
+    private static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    private PriceCents() {
+    }
+
+    /**
+     * Cents of a price, rounded half up to two decimals the way the DECIMAL column
+     * stores it. Throws ArithmeticException if it does not fit in a long.
+     */
+    public static long of(BigDecimal price) {
+        return price.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Smallest number of cents not below the price, for the lower end of a range;
+     * saturates at the long range.
+     */
+    public static long ceiling(BigDecimal price) {
+        return saturated(price.setScale(SCALE, RoundingMode.CEILING).unscaledValue());
+    }
+
+    /**
+     * Largest number of cents not above the price, for the upper end of a range;
+     * saturates at the long range.
+     */
+    public static long floor(BigDecimal price) {
+        return saturated(price.setScale(SCALE, RoundingMode.FLOOR).unscaledValue());
+    }
+
+    private static long saturated(BigInteger cents) {
+        if (cents.bitLength() < Long.SIZE) {
+            return cents.longValue();
+        }
+        return cents.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+
+    public static BigDecimal toPrice(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static BigDecimal average(long sumCents, long count) {
+        return count == 0 ? null
+                : toPrice(sumCents).divide(BigDecimal.valueOf(count), SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Sum of cents[from, to) as a price. Never overflows.
+     */
+    public static BigDecimal sum(long[] cents, int from, int to) {
+        return sum(cents, from, to, ForkJoinPool.commonPool());
+    }
+
+    static BigDecimal sum(long[] cents, int from, int to, ForkJoinPool pool) {
+        long[] halves = halves(cents, from, to, pool);
+        try {
+            return toPrice(combine(halves));
+        } catch (ArithmeticException e) {
+            return new BigDecimal(BigInteger.valueOf(halves[0]).shiftLeft(32).add(BigInteger.valueOf(halves[1])), SCALE);
+        }
+    }
+
+    /**
+     * Sum of cents[from, to); throws ArithmeticException if it does not fit in a long.
+     */
+    public static long sumExact(long[] cents, int from, int to) {
+        return combine(halves(cents, from, to, ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * The single-threaded kernel; {high bits sum, low bits sum}.
+     */
+    public static long[] sequentialHalves(long[] cents, int from, int to) {
+        long high = 0;
+        long low = 0;
+        for (int i = from; i < to; i++) {
+            long value = cents[i];
+            high += value >> 32;
+            low += value & 0xFFFFFFFFL;
+        }
+        return new long[]{high, low};
+    }
+
+    private static long[] halves(long[] cents, int from, int to, ForkJoinPool pool) {
+        if (to - from < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            return sequentialHalves(cents, from, to);
+        }
+        return pool.invoke(new SumTask(cents, from, to));
+    }
+
+    // high * 2^32 + low
+    private static long combine(long[] halves) {
+        return Math.addExact(Math.multiplyExact(halves[0], 1L << 32), halves[1]);
+    }
+
+    // Partial sums of the halves add without overflow, so splitting needs no care
+    private static final class SumTask extends RecursiveTask<long[]> {
+        private final long[] cents;
+        private final int from;
+        private final int to;
+
+        SumTask(long[] cents, int from, int to) {
+            this.cents = cents;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return sequentialHalves(cents, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            SumTask left = new SumTask(cents, from, middle);
+            left.fork();
+            long[] right = new SumTask(cents, middle, to).compute();
+            long[] result = left.join();
+            result[0] += right[0];
+            result[1] += right[1];
+            return result;
+        }
+    }
+}
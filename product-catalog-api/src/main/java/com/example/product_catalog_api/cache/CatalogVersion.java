@@ -0,0 +1,51 @@
+package com.example.product_catalog_api.cache;
+
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog-wide change counter used as the validator for collection responses
+ * (lists, counts, statistics): any committed product change bumps it, and so
+ * does replacing the data those responses are read from (a new snapshot), so a
+ * conditional GET can be answered with 304 before anything is read or serialized.
+ *
+ * The counter restarts with the application, so the ETag also carries the start
+ * time; a validator from before a restart never matches.
+ */
+@Component
+public class CatalogVersion {
+
+    private final long generation = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = generation;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        changed();
+    }
+
+    /**
+     * Invalidates every validator handed out so far. Call it after the new data is
+     * visible to readers, so a response carrying the new validator never has old data.
+     */
+    public void changed() {
+        version.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // weak: the same catalog version may be sent compressed or not
+    public String getETag() {
+        return "W/\"" + Long.toString(generation, 36) + "-" + version.get() + "\"";
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.product_catalog_api.cache;
+
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache regions for products, and their invalidation for
+ * writes Hibernate does not see.
+ *
+ * Bulk writes and conditional updates go through ProductBatchRepository over
+ * plain JDBC, so Hibernate neither evicts the entities nor marks the query cache
+ * stale. For every product change this does what Hibernate does for its own
+ * bulk statements: the products table is pre-invalidated in the timestamps cache
+ * and each changed entity is soft-locked while the transaction runs, then both
+ * are released after completion. A load that read the old row before the commit
+ * cannot put it back, and cached category queries older than the commit are
+ * ignored.
+ */
+@Component
+public class HibernateCacheRegions {
+
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY_QUERIES = "product-category-queries";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final EntityPersister persister;
+    private final String[] querySpaces;
+
+    @Autowired
+    public HibernateCacheRegions(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(Product.class);
+        Object[] spaces = persister.getQuerySpaces();
+        this.querySpaces = Arrays.copyOf(spaces, spaces.length, String[].class);
+    }
+
+    // Runs at publish time, inside the writing transaction
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (access != null) {
+                access.evict(key(event.getProductId()));
+            }
+            sessionFactory.getCache().evictQueryRegion(CATEGORY_QUERIES);
+            return;
+        }
+
+        PendingInvalidation pending = (PendingInvalidation) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            pending = new PendingInvalidation(session);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+            sessionFactory.getCache().getTimestampsCache().preInvalidate(querySpaces, session);
+        }
+        if (access != null && event.getType() != ProductChangedEvent.Type.CREATED) {
+            Object key = key(event.getProductId());
+            pending.locks.add(Map.entry(key, access.lockItem(pending.session, key, null)));
+        }
+    }
+
+    private Object key(Long id) {
+        return persister.getCacheAccessStrategy().generateCacheKey(id, persister, sessionFactory, null);
+    }
+
+    public Map<String, Object> getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("secondLevelCacheHitCount", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMissCount", statistics.getSecondLevelCacheMissCount());
+        result.put("secondLevelCachePutCount", statistics.getSecondLevelCachePutCount());
+        result.put("queryCacheHitCount", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMissCount", statistics.getQueryCacheMissCount());
+        result.put("queryCachePutCount", statistics.getQueryCachePutCount());
+        Map<String, Object> regions = new LinkedHashMap<>();
+        regions.put(PRODUCT, region(statistics.getDomainDataRegionStatistics(PRODUCT)));
+        regions.put(CATEGORY_QUERIES, region(statistics.getQueryRegionStatistics(CATEGORY_QUERIES)));
+        result.put("regions", regions);
+        return result;
+    }
+
+    // query regions only exist once a query has been cached in them
+    private static Map<String, Object> region(CacheRegionStatistics region) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (region == null) {
+            return result;
+        }
+        long lookups = region.getHitCount() + region.getMissCount();
+        result.put("hitCount", region.getHitCount());
+        result.put("missCount", region.getMissCount());
+        result.put("hitRate", lookups == 0 ? 0.0 : (double) region.getHitCount() / lookups);
+        result.put("putCount", region.getPutCount());
+        result.put("removeCount", region.getRemoveCount());
+        // JCache regions cannot report their size
+        if (region.getElementCountInMemory() != CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN) {
+            result.put("elementCountInMemory", region.getElementCountInMemory());
+        }
+        return result;
+    }
+
+    private class PendingInvalidation implements TransactionSynchronization {
+        final SharedSessionContractImplementor session;
+        final List<Map.Entry<Object, SoftLock>> locks = new ArrayList<>();
+
+        PendingInvalidation(SharedSessionContractImplementor session) {
+            this.session = session;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(HibernateCacheRegions.this);
+            EntityDataAccess access = persister.getCacheAccessStrategy();
+            for (Map.Entry<Object, SoftLock> lock : locks) {
+                access.unlockItem(session, lock.getKey(), lock.getValue());
+            }
+            sessionFactory.getCache().getTimestampsCache().invalidate(querySpaces, session);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.product_catalog_api.cache;
+
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of products by id (Caffeine, W-TinyLFU eviction).
+ *
+ * Entries are invalidated once an update or delete commits. A load that started
+ * before the commit finishes before the invalidation runs, so a stale row cannot
+ * be left behind. Missing products are not cached.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, Product> cache;
+
+    public ProductCache(@Value("${catalog.cache.products.maximum-size:10000}") long maximumSize,
+                        @Value("${catalog.cache.products.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Product> get(Long id, Function<Long, Optional<Product>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    // Does not load: a miss only means the caller has to ask the database
+    public boolean contains(Long id) {
+        return cache.getIfPresent(id) != null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() != ProductChangedEvent.Type.CREATED) {
+            cache.invalidate(event.getProductId());
+        }
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadSuccessCount", stats.loadSuccessCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        return result;
+    }
+}
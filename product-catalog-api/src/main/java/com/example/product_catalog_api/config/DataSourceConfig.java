@@ -0,0 +1,84 @@
+package com.example.product_catalog_api.config;
+
+import com.example.product_catalog_api.metrics.StatementMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * The application DataSource is the pool wrapped in a LazyConnectionDataSourceProxy,
+ * so a transaction only borrows a connection once it runs a statement; read-only
+ * work answered from memory (counts, inventory value) never touches the pool.
+ *
+ * When catalog.datasource.replica.url is set, read-only transactions get their
+ * connection from a second pool on the replica instead. Replicas lag, so anything
+ * that must see its own writes has to run in a read-write transaction.
+ *
+ * Each pool sits behind a {@link ConcurrencyLimitingDataSource} with as many
+ * permits as the pool has connections, so the pool size set in
+ * spring.datasource.hikari.maximum-pool-size is the database concurrency limit
+ * whether requests run on platform or virtual threads.
+ *
+ * Every statement on either pool is timed by a {@link StatementTimingDataSource}
+ * feeding {@link StatementMetrics}.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("catalog.datasource.replica.hikari")
+    @ConditionalOnProperty("catalog.datasource.replica.url")
+    public HikariDataSource replicaDataSource(@Value("${catalog.datasource.replica.url}") String url,
+                                              @Value("${catalog.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${catalog.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replica,
+                                 StatementMetrics statementMetrics) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new StatementTimingDataSource(limited("primary", primary), statementMetrics));
+        replica.ifAvailable(pool -> dataSource.setReadOnlyDataSource(
+                new StatementTimingDataSource(limited("replica", pool), statementMetrics)));
+        return dataSource;
+    }
+
+    private static DataSource limited(String name, HikariDataSource pool) {
+        log.info("{} database: at most {} concurrent connections, {} ms acquire timeout",
+                name, pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+        return new ConcurrencyLimitingDataSource(pool, pool.getMaximumPoolSize(),
+                Duration.ofMillis(pool.getConnectionTimeout()));
+    }
+}
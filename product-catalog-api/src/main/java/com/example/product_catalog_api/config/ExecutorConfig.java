@@ -0,0 +1,38 @@
+package com.example.product_catalog_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // spring.threads.virtual.enabled also switches Tomcat, @Async and @Scheduled to virtual threads;
+    // these pools stay bounded either way, only their threads change
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Writer side of streaming imports; one thread per concurrently running import
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(@Value("${catalog.import.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentJobs);
+        executor.setMaxPoolSize(maxConcurrentJobs);
+        executor.setQueueCapacity(maxConcurrentJobs);
+        executor.setThreadNamePrefix("product-import-");
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+
+    // Sends change feed batches; each subscriber has at most one send queued or running
+    @Bean
+    public ThreadPoolTaskExecutor feedExecutor(@Value("${catalog.feed.sender-threads:4}") int senderThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(senderThreads);
+        executor.setMaxPoolSize(senderThreads);
+        executor.setThreadNamePrefix("product-feed-");
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+}
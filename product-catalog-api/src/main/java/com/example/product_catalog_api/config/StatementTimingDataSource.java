@@ -0,0 +1,92 @@
+package com.example.product_catalog_api.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times every statement executed through the data source and reports it with its
+ * SQL (placeholders, not values) to a {@link Listener}. Sitting under Hibernate and
+ * JdbcTemplate alike, it sees the JDBC batch and export paths as well as JPA
+ * queries. Batches are reported once per executeBatch().
+ */
+public class StatementTimingDataSource extends DelegatingDataSource {
+
+    public interface Listener {
+        void executed(String sql, long nanos, boolean failed);
+    }
+
+    private final Listener listener;
+
+    public StatementTimingDataSource(DataSource target, Listener listener) {
+        super(target);
+        this.listener = listener;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    // Statements come back wrapped: prepared ones remember their SQL, plain ones take it per execute
+    private Connection timed(Connection connection) {
+        return (Connection) proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return timed(method.getReturnType(), statement, sql);
+            }
+            return result;
+        });
+    }
+
+    private Object timed(Class<?> type, Statement statement, String preparedSql) {
+        return proxy(type, statement, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invoke(statement, method, args);
+                failed = false;
+                return result;
+            } finally {
+                listener.executed(sql != null ? sql : "batch", System.nanoTime() - start, failed);
+            }
+        });
+    }
+
+    private static Object proxy(Class<?> type, Object target, InvocationHandler handler) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -1,14 +1,43 @@
 package com.example.product_catalog_api.controller;
 
+import com.example.product_catalog_api.cache.CatalogVersion;
+import com.example.product_catalog_api.dto.BatchResult;
+import com.example.product_catalog_api.dto.FacetedProductPage;
+import com.example.product_catalog_api.dto.ProductFields;
+import com.example.product_catalog_api.dto.ProductPage;
+import com.example.product_catalog_api.dto.ProductSuggestion;
+import com.example.product_catalog_api.dto.ProductSummary;
+import com.example.product_catalog_api.dto.SearchResult;
 import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.entity.ProductHistory;
+import com.example.product_catalog_api.feed.ProductChangeFeed;
 import com.example.product_catalog_api.repository.ProductRepository;
 import com.example.product_catalog_api.service.ProductService;
+import com.example.product_catalog_api.stats.CatalogStatistics;
+import com.example.product_catalog_api.stats.CatalogStatisticsService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +51,28 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogStatisticsService catalogStatisticsService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CBORMapper cborMapper;
+
+    // Boot only provides a CBOR mapper; this matches the one behind the Smile message converter
+    private final SmileMapper smileMapper = SmileMapper.builder().build();
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final String TOTAL_COUNT = "X-Total-Count";
+
     // CREATE - POST /api/products
     @PostMapping
     public ResponseEntity<?> createProduct(@RequestBody Product product) {
@@ -35,19 +86,129 @@ public class ProductController {
         }
     }
 
-    // READ ALL - GET /api/products
+    // READ ALL - GET /api/products?fields={id,name,price,category}
+    // Streams the JSON array row by row so memory stays flat regardless of catalog size;
+    // with fields= only those columns are read and written
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public void getAllProducts(@RequestParam(required = false) String fields,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProductFields selection;
+        try {
+            selection = ProductFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), Map.of("error", e.getMessage()));
+            return;
+        }
+        if (catalogNotModified(new ServletWebRequest(request, response))) {
+            return;
+        }
+        Encoding encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        response.setContentType(encoding.type().toString());
+        try (JsonGenerator generator = encoding.mapper().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            if (selection == null) {
+                productService.streamAllProducts(generator::writePOJO);
+            } else {
+                productService.streamAllProductSummaries(product -> selection.write(generator, product));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    // READ PAGE - GET /api/products/page?after={id}&size={size}
+    @GetMapping("/page")
+    public ResponseEntity<ProductPage> getProductsPage(@RequestParam(required = false) Long after,
+                                                       @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.getProductsPage(after, size));
+    }
+
+    // FILTER - GET /api/products/filter?category={c}&category={c}&minPrice={min}&maxPrice={max}&q={text}&after={id}&size={size}
+    // Matches plus per-category and per-price-bucket counts, served from the in-memory facet index
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterProducts(@RequestParam(required = false) List<String> category,
+                                            @RequestParam(required = false) BigDecimal minPrice,
+                                            @RequestParam(required = false) BigDecimal maxPrice,
+                                            @RequestParam(required = false) String q,
+                                            @RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer size) {
+        try {
+            FacetedProductPage page = productService.filterProducts(category, minPrice, maxPrice, q, after, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
+    }
+
+    // PRICE RANGE - GET /api/products/price/range?minPrice={min}&maxPrice={max}&category={c}&size={size}
+    // Cheapest first; this and the two below are served from the in-memory price index
+    @GetMapping("/price/range")
+    public ResponseEntity<?> getProductsByPriceRange(@RequestParam(required = false) BigDecimal minPrice,
+                                                     @RequestParam(required = false) BigDecimal maxPrice,
+                                                     @RequestParam(required = false) String category,
+                                                     @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByPriceRange(minPrice, maxPrice, category, size));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // TOP N - GET /api/products/price/top?category={c}&size={size} (most expensive first)
+    @GetMapping("/price/top")
+    public ResponseEntity<List<Product>> getMostExpensiveProducts(@RequestParam(required = false) String category,
+                                                                  @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.getMostExpensiveProducts(category, size));
+    }
+
+    // BOTTOM N - GET /api/products/price/bottom?category={c}&size={size} (cheapest first)
+    @GetMapping("/price/bottom")
+    public ResponseEntity<List<Product>> getCheapestProducts(@RequestParam(required = false) String category,
+                                                             @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.getCheapestProducts(category, size));
+    }
+
+    // SUGGEST - GET /api/products/suggest?q={prefix}&size={size}
+    // Typeahead completions from the in-memory trie; cheap enough to call on every keystroke.
+    // While the trie is built after startup, names starting with q come from the name index.
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggest(@RequestParam String q,
+                                                           @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.suggest(q, size));
+    }
+
+    // CHANGE FEED - GET /api/products/changes (text/event-stream)
+    // "hello" with the current totals, then coalesced "changes" batches; "reset" means reload
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> subscribeToChanges() {
+        try {
+            return ResponseEntity.ok(productChangeFeed.subscribe());
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
     }
 
     // READ ONE - GET /api/products/{id}
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(@PathVariable Long id, WebRequest request) {
         Optional<Product> product = productService.getProductById(id);
 
         if (product.isPresent()) {
+            // usually a cache hit, so a 304 costs neither a query nor serialization
+            if (request.checkNotModified(productETag(product.get()), lastModified(product.get()))) {
+                return null;
+            }
             return ResponseEntity.ok(product.get());
         } else {
             Map<String, String> error = new HashMap<>();
@@ -56,11 +217,27 @@ public class ProductController {
         }
     }
 
-    // READ BY CATEGORY - GET /api/products/category/{category}
+    // READ BY CATEGORY - GET /api/products/category/{category}?fields={id,name,price,category}
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getProductsByCategory(@PathVariable String category,
+                                                   @RequestParam(required = false) String fields,
+                                                   WebRequest request) {
+        try {
+            ProductFields selection = ProductFields.parse(fields);
+            if (catalogNotModified(request)) {
+                return null;
+            }
+            if (selection != null) {
+                return summaries(productService.getProductSummariesByCategory(category), selection,
+                        request.getHeader(HttpHeaders.ACCEPT));
+            }
+            List<Product> products = productService.getProductsByCategory(category);
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     // UPDATE - PUT /api/products/{id}
@@ -69,6 +246,31 @@ public class ProductController {
         try {
             Product updatedProduct = productService.updateProduct(id, productDetails);
             return ResponseEntity.ok(updatedProduct);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+
+    // PATCH - PATCH /api/products/{id}
+    // Only the fields present are changed; include "version" to fail with 409 if someone else changed the product first
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchProduct(@PathVariable Long id, @RequestBody Product changes) {
+        try {
+            return ResponseEntity.ok(productService.patchProduct(id, changes));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -91,15 +293,53 @@ public class ProductController {
         }
     }
 
+    // BULK CREATE - POST /api/products/batch
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> createProducts(@RequestBody List<Product> products) {
+        return ResponseEntity.ok(productService.createProducts(products));
+    }
+
+    // BULK UPDATE - PUT /api/products/batch
+    @PutMapping("/batch")
+    public ResponseEntity<BatchResult> updateProducts(@RequestBody List<Product> products) {
+        return ResponseEntity.ok(productService.updateProducts(products));
+    }
+
+    // BULK DELETE - DELETE /api/products/batch
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchResult> deleteProducts(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productService.deleteProducts(ids));
+    }
+
     // GET COUNT - GET /api/products/count
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Long>> countProducts() {
+    public ResponseEntity<Map<String, Long>> countProducts(WebRequest request) {
+        if (catalogNotModified(request)) {
+            return null;
+        }
         long count = productService.countProducts();
         Map<String, Long> response = new HashMap<>();
         response.put("count", count);
         return ResponseEntity.ok(response);
     }
 
+    // HISTORY - GET /api/products/{id}/history?from={iso}&to={iso}&size={size}
+    // Old and new values per change, newest first; written behind, so the latest change can lag by a flush
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getProductHistory(@PathVariable Long id,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                               @RequestParam(required = false) Integer size) {
+        try {
+            List<ProductHistory> history = productService.getProductHistory(id, from, to, size);
+            return ResponseEntity.ok(history);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     // CHECK EXISTS - GET /api/products/{id}/exists
     @GetMapping("/{id}/exists")
     public ResponseEntity<Map<String, Boolean>> productExists(@PathVariable Long id) {
@@ -111,7 +351,10 @@ public class ProductController {
 
     // GET INVENTORY VALUE - GET /api/products/inventory/value
     @GetMapping("/inventory/value")
-    public ResponseEntity<Map<String, BigDecimal>> getInventoryValue() {
+    public ResponseEntity<Map<String, BigDecimal>> getInventoryValue(WebRequest request) {
+        if (catalogNotModified(request)) {
+            return null;
+        }
         try {
             BigDecimal value = productService.calculateInventoryValue();
             Map<String, BigDecimal> response = new HashMap<>();
@@ -124,16 +367,74 @@ public class ProductController {
         }
     }
 
-    // SEARCH - GET /api/products/search?name={name}
+    // SEARCH - GET /api/products/search?name={name}&size={n}&fields={id,name,price,category}
+    // The best matches by name, at most size of them and never more than catalog.search.max-results (100),
+    // so unlike the old unbounded LIKE query a broad name no longer returns every match; X-Total-Count is
+    // how many matched in all. A blank name matches nothing rather than the whole catalog
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> searchProducts(@RequestParam String name,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestParam(required = false) String fields,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                            HttpServletResponse response) {
+        try {
+            ProductFields selection = ProductFields.parse(fields);
+            if (selection != null) {
+                SearchResult<ProductSummary> result = productService.searchProductSummariesByName(name, size);
+                response.setHeader(TOTAL_COUNT, String.valueOf(result.total()));
+                return summaries(result.items(), selection, accept);
+            }
+            SearchResult<Product> result = productService.searchProductsByName(name, size);
+            response.setHeader(TOTAL_COUNT, String.valueOf(result.total()));
+            return ResponseEntity.ok(result.items());
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Writes only the selected properties of each summary
+    private ResponseEntity<byte[]> summaries(List<ProductSummary> products, ProductFields selection, String accept) {
+        Encoding encoding = negotiate(accept);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (JsonGenerator generator = encoding.mapper().createGenerator(body)) {
+            generator.writeStartArray();
+            products.forEach(product -> selection.write(generator, product));
+            generator.writeEndArray();
+        }
+        return ResponseEntity.ok().contentType(encoding.type()).body(body.toByteArray());
+    }
+
+    private record Encoding(MediaType type, ObjectMapper mapper) {
+    }
+
+    // Responses written through a generator pick their format here; the others go through
+    // the message converters. JSON unless CBOR or Smile is acceptable with a higher quality.
+    private Encoding negotiate(String accept) {
+        List<Encoding> encodings = List.of(
+                new Encoding(new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8), objectMapper),
+                new Encoding(MediaType.APPLICATION_CBOR, cborMapper),
+                new Encoding(SMILE, smileMapper));
+        Encoding selected = encodings.get(0);
+        double quality = -1;
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            for (Encoding encoding : encodings) {
+                if (type.includes(encoding.type()) && type.getQualityValue() > quality) {
+                    selected = encoding;
+                    quality = type.getQualityValue();
+                }
+            }
+        }
+        return selected;
     }
 
     // GET CATEGORY COUNT - GET /api/products/categories/count
     @GetMapping("/categories/count")
-    public ResponseEntity<Map<String, Long>> getCategoryCount() {
+    public ResponseEntity<Map<String, Long>> getCategoryCount(WebRequest request) {
+        if (catalogNotModified(request)) {
+            return null;
+        }
         try {
             long count = productService.getCategoryCount();
             Map<String, Long> response = new HashMap<>();
@@ -145,4 +446,61 @@ public class ProductController {
             return ResponseEntity.ok(error);
         }
     }
-}
\ No newline at end of file
+
+    // STATS - GET /api/products/stats?include=categories,histogram&bucketWidth={width}
+    @GetMapping("/stats")
+    public ResponseEntity<CatalogStatistics> getStatistics(@RequestParam(required = false) List<String> include,
+                                                           @RequestParam(required = false) BigDecimal bucketWidth,
+                                                           WebRequest request) {
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        boolean categories = include != null && include.contains("categories");
+        boolean histogram = include != null && include.contains("histogram");
+        return ResponseEntity.ok(catalogStatisticsService.getStatistics(categories, histogram, bucketWidth));
+    }
+
+    // CACHE STATS - GET /api/products/cache/stats
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    // CACHE REGIONS - GET /api/products/cache/regions (Hibernate second-level and query cache)
+    @GetMapping("/cache/regions")
+    public ResponseEntity<Map<String, Object>> getCacheRegionStats() {
+        return ResponseEntity.ok(productService.getCacheRegionStats());
+    }
+
+    // SNAPSHOT - GET /api/products/snapshot (snapshot mode: size, age and refreshes of the mapped catalog)
+    @GetMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> getSnapshotStats() {
+        return ResponseEntity.ok(productService.getSnapshotStats());
+    }
+
+    // SUGGEST STATS - GET /api/products/suggest/stats (completions, trie nodes and estimated memory)
+    @GetMapping("/suggest/stats")
+    public ResponseEntity<Map<String, Object>> getSuggestStats() {
+        return ResponseEntity.ok(productService.getSuggestStats());
+    }
+
+    // HISTORY STATS - GET /api/products/history/stats (write-behind queue, overflow and flush lag)
+    @GetMapping("/history/stats")
+    public ResponseEntity<Map<String, Object>> getHistoryStats() {
+        return ResponseEntity.ok(productService.getHistoryStats());
+    }
+
+    // Collection responses are validated by the catalog version alone, before anything is read
+    private boolean catalogNotModified(WebRequest request) {
+        return request.checkNotModified(catalogVersion.getETag(), catalogVersion.getLastModified());
+    }
+
+    private static String productETag(Product product) {
+        return "\"" + product.getId() + "-" + product.getVersion() + "\"";
+    }
+
+    private static long lastModified(Product product) {
+        return product.getUpdatedAt() == null ? -1
+                : product.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.product_catalog_api.controller;
+
+import com.example.product_catalog_api.export.ExportFormat;
+import com.example.product_catalog_api.export.ProductExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/products/export")
+@CrossOrigin(origins = "http://localhost:8080")
+public class ProductExportController {
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    // EXPORT - GET /api/products/export?format=csv|ndjson&gzip=true
+    @GetMapping
+    public void exportProducts(@RequestParam(defaultValue = "csv") String format,
+                               @RequestParam(defaultValue = "false") boolean gzip,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unsupported export format: " + format);
+            return;
+        }
+
+        String filename = "products." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+
+        OutputStream out = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), productExportService.getBufferSize())
+                : response.getOutputStream();
+        try (out) {
+            productExportService.export(out, exportFormat);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.product_catalog_api.controller;
+
+import com.example.product_catalog_api.importer.DuplicateImportJobException;
+import com.example.product_catalog_api.importer.ImportFormat;
+import com.example.product_catalog_api.importer.ImportJob;
+import com.example.product_catalog_api.importer.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api/products/imports")
+@CrossOrigin(origins = "http://localhost:8080")
+public class ProductImportController {
+
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    // IMPORT - POST /api/products/imports?jobId=... (body: text/csv or application/x-ndjson)
+    // The body is read as a stream, never buffered, and the call returns the job when the import is done.
+    // To follow a long upload, pass your own jobId (letters, digits, '.', '_', '-', up to 64) and poll
+    // /imports/{jobId} while it runs; an id still held by a recent job is rejected with 409
+    @PostMapping
+    public ResponseEntity<?> importProducts(HttpServletRequest request,
+                                            @RequestParam(required = false) String format,
+                                            @RequestParam(required = false) String jobId) throws IOException {
+        ImportFormat importFormat;
+        try {
+            importFormat = ImportFormat.resolve(format, request.getContentType());
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(error);
+        }
+        if (jobId != null && !JOB_ID.matcher(jobId).matches()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid job id: " + jobId);
+            return ResponseEntity.badRequest().body(error);
+        }
+        try {
+            ImportJob job = productImportService.importProducts(request.getInputStream(), importFormat, jobId);
+            return ResponseEntity.ok(job);
+        } catch (DuplicateImportJobException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
+    }
+
+    // JOB STATUS - GET /api/products/imports/{jobId}
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId) {
+        ImportJob job = productImportService.getJob(jobId);
+        if (job == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Import job not found with id: " + jobId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    // RECENT JOBS - GET /api/products/imports
+    @GetMapping
+    public ResponseEntity<List<ImportJob>> getImportJobs() {
+        return ResponseEntity.ok(productImportService.getJobs());
+    }
+}
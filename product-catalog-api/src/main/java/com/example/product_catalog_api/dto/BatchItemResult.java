@@ -0,0 +1,54 @@
+package com.example.product_catalog_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Outcome of one item of a bulk request; index is its position in the request body.
+ */
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, NOT_FOUND, INVALID, CONFLICT, FAILED
+    }
+
+    private final int index;
+    private final Long id;
+    private final Status status;
+    private final String error;
+
+    public BatchItemResult(int index, Long id, Status status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static BatchItemResult success(int index, Long id, Status status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult failure(int index, Long id, Status status, String error) {
+        return new BatchItemResult(index, id, status, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.product_catalog_api.dto;
+
+import java.util.List;
+
+/**
+ * Response of the bulk endpoints: per-item outcomes plus throughput of the call.
+ */
+public class BatchResult {
+
+    private final int total;
+    private final int succeeded;
+    private final int failed;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+    private final List<BatchItemResult> items;
+
+    public BatchResult(List<BatchItemResult> items, long elapsedNanos) {
+        this.items = items;
+        this.total = items.size();
+        this.succeeded = (int) items.stream().filter(BatchItemResult::isSuccess).count();
+        this.failed = total - succeeded;
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.rowsPerSecond = elapsedNanos > 0 ? total * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public List<BatchItemResult> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.product_catalog_api.dto;
+
+import com.example.product_catalog_api.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One keyset page of the products matching a faceted filter, with the total
+ * number of matches and the facet counts for the whole result. Pass nextCursor
+ * back as ?after= with the same filters to fetch the following page.
+ */
+public class FacetedProductPage {
+
+    public record CategoryFacet(String category, long count) {
+    }
+
+    public record PriceFacet(BigDecimal from, BigDecimal to, long count) {
+    }
+
+    private final List<Product> items;
+    private final Long nextCursor;
+    private final long total;
+    private final List<CategoryFacet> categories;
+    private final List<PriceFacet> priceBuckets;
+
+    public FacetedProductPage(List<Product> items, Long nextCursor, long total,
+                              List<CategoryFacet> categories, List<PriceFacet> priceBuckets) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.total = total;
+        this.categories = categories;
+        this.priceBuckets = priceBuckets;
+    }
+
+    public List<Product> getItems() {
+        return items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public int getSize() {
+        return items.size();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public List<CategoryFacet> getCategories() {
+        return categories;
+    }
+
+    public List<PriceFacet> getPriceBuckets() {
+        return priceBuckets;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.product_catalog_api.dto;
+
+import tools.jackson.core.JsonGenerator;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Field selection for list endpoints (?fields=id,name,price). Only the summary
+ * columns can be selected; rows are written straight to the generator with just
+ * those properties, in the order the entity declares them.
+ */
+public class ProductFields {
+
+    private static final List<String> SUMMARY = List.of("id", "name", "price", "category");
+
+    private final Set<String> fields;
+
+    private ProductFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    // null when no selection was asked for, i.e. full products
+    public static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SUMMARY.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + ", fields can be "
+                        + String.join(", ", SUMMARY));
+            }
+            selected.add(name);
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("No fields selected");
+        }
+        return new ProductFields(selected);
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public void write(JsonGenerator generator, ProductSummary product) {
+        generator.writeStartObject();
+        if (fields.contains("id")) {
+            generator.writeNumberProperty("id", product.id());
+        }
+        if (fields.contains("name")) {
+            generator.writeStringProperty("name", product.name());
+        }
+        if (fields.contains("price")) {
+            generator.writeNumberProperty("price", product.price());
+        }
+        if (fields.contains("category")) {
+            generator.writeStringProperty("category", product.category());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.product_catalog_api.dto;
+
+import com.example.product_catalog_api.entity.Product;
+
+import java.util.List;
+
+/**
+ * One keyset page of products ordered by id. Pass nextCursor back as
+ * ?after= to fetch the following page; it is null on the last page.
+ */
+public class ProductPage {
+
+    private final List<Product> items;
+    private final Long nextCursor;
+
+    public ProductPage(List<Product> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getItems() {
+        return items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public int getSize() {
+        return items.size();
+    }
+}
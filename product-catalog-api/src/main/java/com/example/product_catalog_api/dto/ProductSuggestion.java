@@ -0,0 +1,9 @@
+package com.example.product_catalog_api.dto;
+
+/**
+ * A typeahead completion: a product name or a category ({@code type} "name" or
+ * "category"), how many products carry it and its popularity score (those
+ * products plus their views), which orders the suggestions.
+ */
+public record ProductSuggestion(String text, String type, long products, long score) {
+}
@@ -0,0 +1,10 @@
+package com.example.product_catalog_api.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns list views need, read with a constructor expression: no entity
+ * is managed or dirty-checked, and description and timestamps are never fetched.
+ */
+public record ProductSummary(Long id, String name, BigDecimal price, String category) {
+}
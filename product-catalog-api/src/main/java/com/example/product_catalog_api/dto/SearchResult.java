@@ -0,0 +1,14 @@
+package com.example.product_catalog_api.dto;
+
+import java.util.List;
+
+/**
+ * The best matches of a search, best first, and how many products matched in
+ * all; {@code total} exceeds the number of items when the result was cut short.
+ */
+public record SearchResult<T>(List<T> items, long total) {
+
+    public boolean isTruncated() {
+        return total > items.size();
+    }
+}
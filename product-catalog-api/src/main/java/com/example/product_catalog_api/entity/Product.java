@@ -1,12 +1,29 @@
 package com.example.product_catalog_api.entity;
 
+import com.example.product_catalog_api.cache.HibernateCacheRegions;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // category filter, and price ordering within a category
+        @Index(name = "idx_products_category_price", columnList = "category, price"),
+        // price ranges and min/max
+        @Index(name = "idx_products_price", columnList = "price"),
+        // name prefix search
+        @Index(name = "idx_products_name", columnList = "name")
+})
+// UPDATE statements only list the columns that actually changed
+@DynamicUpdate
+// second-level cache; writes that bypass Hibernate are evicted by HibernateCacheRegions
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheRegions.PRODUCT)
 public class Product {
 
     @Id
@@ -29,6 +46,12 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // bumped by every write; rows inserted over JDBC start at the column default
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public Product() {
 
     }
@@ -89,6 +112,13 @@ public class Product {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     //prepersist helps to update the timestamp automatically.
     @PrePersist
     protected void onCreate() {
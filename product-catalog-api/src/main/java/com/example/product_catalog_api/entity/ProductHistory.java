@@ -0,0 +1,115 @@
+package com.example.product_catalog_api.entity;
+
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One committed product change, old and new values side by side. Rows are only
+ * ever appended (by ProductHistoryRecorder, in JDBC batches) and read back per
+ * product and time range.
+ */
+@Entity
+@Immutable
+@Table(name = "product_history", indexes = {
+        // history of one product over a time range
+        @Index(name = "idx_product_history_product_time", columnList = "product_id, changed_at")
+})
+public class ProductHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private ProductChangedEvent.Type changeType;
+
+    @Column(name = "old_name")
+    private String oldName;
+
+    @Column(name = "new_name")
+    private String newName;
+
+    @Column(name = "old_price")
+    private BigDecimal oldPrice;
+
+    @Column(name = "new_price")
+    private BigDecimal newPrice;
+
+    @Column(name = "old_category")
+    private String oldCategory;
+
+    @Column(name = "new_category")
+    private String newCategory;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    protected ProductHistory() {
+
+    }
+
+    public ProductHistory(ProductChangedEvent event, LocalDateTime changedAt) {
+        ProductState before = event.getBefore();
+        ProductState after = event.getAfter();
+        this.productId = event.getProductId();
+        this.changeType = event.getType();
+        this.oldName = before != null ? before.name() : null;
+        this.newName = after != null ? after.name() : null;
+        this.oldPrice = before != null ? before.price() : null;
+        this.newPrice = after != null ? after.price() : null;
+        this.oldCategory = before != null ? before.category() : null;
+        this.newCategory = after != null ? after.category() : null;
+        // the column keeps microseconds; rounding up could move a change past a range ending now
+        this.changedAt = changedAt.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public ProductChangedEvent.Type getChangeType() {
+        return changeType;
+    }
+
+    public String getOldName() {
+        return oldName;
+    }
+
+    public String getNewName() {
+        return newName;
+    }
+
+    public BigDecimal getOldPrice() {
+        return oldPrice;
+    }
+
+    public BigDecimal getNewPrice() {
+        return newPrice;
+    }
+
+    public String getOldCategory() {
+        return oldCategory;
+    }
+
+    public String getNewCategory() {
+        return newCategory;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.product_catalog_api.event;
+
+import com.example.product_catalog_api.entity.Product;
+
+/**
+ * Published by the product service after every create/update/delete.
+ * Carries detached copies of the row before and after the change so listeners
+ * never touch the managed entity.
+ */
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final ProductState before;
+    private final ProductState after;
+
+    private ProductChangedEvent(Type type, ProductState before, ProductState after) {
+        this.type = type;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(Type.CREATED, null, ProductState.of(product));
+    }
+
+    public static ProductChangedEvent created(ProductState after) {
+        return new ProductChangedEvent(Type.CREATED, null, after);
+    }
+
+    public static ProductChangedEvent updated(ProductState before, Product product) {
+        return new ProductChangedEvent(Type.UPDATED, before, ProductState.of(product));
+    }
+
+    public static ProductChangedEvent updated(ProductState before, ProductState after) {
+        return new ProductChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static ProductChangedEvent deleted(ProductState before) {
+        return new ProductChangedEvent(Type.DELETED, before, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // null for CREATED
+    public ProductState getBefore() {
+        return before;
+    }
+
+    // null for DELETED
+    public ProductState getAfter() {
+        return after;
+    }
+
+    public Long getProductId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{" +
+                "type=" + type +
+                ", productId=" + getProductId() +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.product_catalog_api.event;
+
+import com.example.product_catalog_api.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a product row, taken at the moment of a change. The version
+ * is the row version it was read at or written with, null when not known.
+ */
+public record ProductState(Long id,
+                           String name,
+                           String description,
+                           BigDecimal price,
+                           String category,
+                           LocalDateTime updatedAt,
+                           Long version) {
+
+    public static ProductState of(Product product) {
+        return new ProductState(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getUpdatedAt(),
+                product.getVersion());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.product_catalog_api.event;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The last row version an in-memory index applied for each product, so it can
+ * drop a change that reaches it after a newer one. After-commit listeners run on
+ * the committing threads, so two updates of one product can commit in one order
+ * and be applied in the other; without the check the older state would stay.
+ *
+ * Versions are kept in two primitive arrays with open addressing (16 bytes a
+ * product). A deleted product stays known for a minute, so a change overtaken by
+ * its delete cannot bring it back; product ids are never reused. The window is
+ * time rather than a count of deletes, since one bulk delete can remove tens of
+ * thousands of products at once. A change without a version always applies.
+ * Not thread-safe: the owning index holds its lock.
+ */
+public class ProductVersions {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    // the window a late change can arrive in is a few commits, well under a minute
+    private static final long RECENT_DELETES_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private long[] ids;
+    private long[] versions;
+    private int size;
+
+    // deleted id -> when, oldest first
+    private final Map<Long, Long> recentlyDeleted = new LinkedHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public ProductVersions() {
+        this(System::nanoTime);
+    }
+
+    ProductVersions(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        clear();
+    }
+
+    public void clear() {
+        ids = new long[16];
+        versions = new long[16];
+        Arrays.fill(ids, EMPTY);
+        size = 0;
+        recentlyDeleted.clear();
+    }
+
+    /**
+     * Records the version of a row read from the database, as a rebuild does.
+     */
+    public void loaded(ProductState state) {
+        if (state.version() != null) {
+            put(state.id(), state.version());
+        }
+    }
+
+    /**
+     * Whether the change is newer than what was applied for its product, recording
+     * it if so. A delete always applies: it removes the row whatever its version.
+     */
+    public boolean accept(ProductChangedEvent event) {
+        long id = event.getProductId();
+        ProductState after = event.getAfter();
+        long now = nanoClock.getAsLong();
+        expireDeletes(now);
+        if (after == null) {
+            remove(id);
+            // re-inserted so the map stays in deletion order
+            recentlyDeleted.remove(id);
+            recentlyDeleted.put(id, now);
+            return true;
+        }
+        if (after.version() == null) {
+            remove(id);
+            recentlyDeleted.remove(id);
+            return true;
+        }
+        if (recentlyDeleted.containsKey(id)) {
+            return false;
+        }
+        int slot = find(id);
+        if (slot >= 0 && versions[slot] >= after.version()) {
+            return false;
+        }
+        put(id, after.version());
+        return true;
+    }
+
+    public long estimatedBytes() {
+        return 2 * ((16 + 8L * ids.length + 7) & ~7L) + recentlyDeleted.size() * (40L + 16 + 16);
+    }
+
+    private void expireDeletes(long now) {
+        Iterator<Long> deletedAt = recentlyDeleted.values().iterator();
+        while (deletedAt.hasNext() && now - deletedAt.next() > RECENT_DELETES_NANOS) {
+            deletedAt.remove();
+        }
+    }
+
+    private int find(long id) {
+        int mask = ids.length - 1;
+        for (int i = slot(id, mask); ids[i] != EMPTY; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void put(long id, long version) {
+        if ((size + 1) * 4L > ids.length * 3L) {
+            resize(ids.length * 2);
+        }
+        int mask = ids.length - 1;
+        int i = slot(id, mask);
+        for (; ids[i] != EMPTY; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                versions[i] = version;
+                return;
+            }
+        }
+        ids[i] = id;
+        versions[i] = version;
+        size++;
+    }
+
+    private void remove(long id) {
+        int i = find(id);
+        if (i < 0) {
+            return;
+        }
+        int mask = ids.length - 1;
+        // shift back the entries that probed past the freed slot, so no lookup stops short
+        int gap = i;
+        for (int j = (i + 1) & mask; ids[j] != EMPTY; j = (j + 1) & mask) {
+            if (((j - slot(ids[j], mask)) & mask) >= ((j - gap) & mask)) {
+                ids[gap] = ids[j];
+                versions[gap] = versions[j];
+                gap = j;
+            }
+        }
+        ids[gap] = EMPTY;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldIds = ids;
+        long[] oldVersions = versions;
+        ids = new long[capacity];
+        versions = new long[capacity];
+        Arrays.fill(ids, EMPTY);
+        int mask = capacity - 1;
+        for (int k = 0; k < oldIds.length; k++) {
+            if (oldIds[k] != EMPTY) {
+                int i = slot(oldIds[k], mask);
+                while (ids[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                ids[i] = oldIds[k];
+                versions[i] = oldVersions[k];
+            }
+        }
+    }
+
+    private static int slot(long id, int mask) {
+        long mixed = id * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
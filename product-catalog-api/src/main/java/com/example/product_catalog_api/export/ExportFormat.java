@@ -0,0 +1,28 @@
+package com.example.product_catalog_api.export;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat of(String format) {
+        return valueOf(format.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.product_catalog_api.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Encodes export rows straight into one reusable byte buffer (UTF-8, with CSV or
+ * JSON escaping) and hands full buffers to the output stream. Besides the values
+ * the JDBC driver materialises, the only per-row allocation is the price's plain
+ * string; no StringBuilders or formatters are involved, so memory use is the
+ * buffer size regardless of how many rows are written.
+ */
+class ExportWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final byte[] digits = new byte[20];
+    private int position;
+
+    ExportWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    void ascii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            put((byte) text.charAt(i));
+        }
+    }
+
+    void ascii(char c) throws IOException {
+        put((byte) c);
+    }
+
+    // RFC 4180: quoted only when the value contains a separator, quote or line break
+    void csv(String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            utf8(text);
+            return;
+        }
+        put((byte) '"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                put((byte) '"');
+            }
+            i = utf8Char(text, i);
+        }
+        put((byte) '"');
+    }
+
+    void json(String text) throws IOException {
+        if (text == null) {
+            ascii("null");
+            return;
+        }
+        put((byte) '"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                put((byte) '\\');
+                put((byte) c);
+            } else if (c == '\n') {
+                ascii("\\n");
+            } else if (c == '\r') {
+                ascii("\\r");
+            } else if (c == '\t') {
+                ascii("\\t");
+            } else if (c < 0x20) {
+                ascii("\\u00");
+                put(HEX[c >> 4]);
+                put(HEX[c & 0xF]);
+            } else {
+                i = utf8Char(text, i);
+            }
+        }
+        put((byte) '"');
+    }
+
+    void number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (length > 0) {
+            put(digits[--length]);
+        }
+    }
+
+    void decimal(BigDecimal value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        ascii(value.toPlainString());
+    }
+
+    // ISO-8601 local date-time, fraction to the microsecond when present
+    void timestamp(LocalDateTime value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        padded(value.getYear(), 4);
+        put((byte) '-');
+        padded(value.getMonthValue(), 2);
+        put((byte) '-');
+        padded(value.getDayOfMonth(), 2);
+        put((byte) 'T');
+        padded(value.getHour(), 2);
+        put((byte) ':');
+        padded(value.getMinute(), 2);
+        put((byte) ':');
+        padded(value.getSecond(), 2);
+        int micros = value.getNano() / 1000;
+        if (micros != 0) {
+            put((byte) '.');
+            padded(micros, 6);
+        }
+    }
+
+    void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    private void padded(int value, int width) throws IOException {
+        int divisor = 1;
+        for (int i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            put((byte) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private void utf8(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            i = utf8Char(text, i);
+        }
+    }
+
+    // Writes the code point at index i and returns the index of its last char
+    private int utf8Char(String text, int i) throws IOException {
+        char c = text.charAt(i);
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            put((byte) (0xC0 | (c >> 6)));
+            put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(i + 1));
+            put((byte) (0xF0 | (codePoint >> 18)));
+            put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            put((byte) (0x80 | (codePoint & 0x3F)));
+            return i + 1;
+        } else {
+            put((byte) (0xE0 | (c >> 12)));
+            put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            put((byte) (0x80 | (c & 0x3F)));
+        }
+        return i;
+    }
+
+    private void put(byte b) throws IOException {
+        if (position == buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        buffer[position++] = b;
+    }
+}
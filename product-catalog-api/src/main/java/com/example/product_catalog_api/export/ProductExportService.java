@@ -0,0 +1,118 @@
+package com.example.product_catalog_api.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Streams the catalog from a forward-only JDBC cursor straight into the output,
+ * row by row, without creating entities. The fetch size bounds how many rows the
+ * driver buffers (MySQL needs useCursorFetch=true on the URL for this to apply).
+ */
+@Service
+public class ProductExportService {
+
+    private static final String EXPORT_SQL =
+            "SELECT id, name, description, price, category, created_at, updated_at FROM products ORDER BY id";
+
+    private static final String CSV_HEADER = "id,name,description,price,category,created_at,updated_at\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int bufferSize;
+
+    public ProductExportService(DataSource dataSource,
+                                @Value("${catalog.export.fetch-size:1000}") int fetchSize,
+                                @Value("${catalog.export.buffer-size:65536}") int bufferSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Writes every product to the stream and returns the number of rows written.
+     */
+    public long export(OutputStream out, ExportFormat format) throws IOException {
+        ExportWriter writer = new ExportWriter(out, bufferSize);
+        if (format == ExportFormat.CSV) {
+            writer.ascii(CSV_HEADER);
+        }
+        long[] rows = new long[1];
+        try {
+            jdbcTemplate.query(EXPORT_SQL, rs -> {
+                try {
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(writer, rs);
+                    } else {
+                        writeNdjson(writer, rs);
+                    }
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // client went away, stop reading from the cursor
+            throw e.getCause();
+        }
+        writer.flush();
+        return rows[0];
+    }
+
+    private static void writeCsv(ExportWriter writer, ResultSet rs) throws IOException, SQLException {
+        writer.number(rs.getLong(1));
+        writer.ascii(',');
+        writer.csv(rs.getString(2));
+        writer.ascii(',');
+        writer.csv(rs.getString(3));
+        writer.ascii(',');
+        writer.decimal(rs.getBigDecimal(4));
+        writer.ascii(',');
+        writer.csv(rs.getString(5));
+        writer.ascii(',');
+        writer.timestamp(rs.getObject(6, LocalDateTime.class));
+        writer.ascii(',');
+        writer.timestamp(rs.getObject(7, LocalDateTime.class));
+        writer.ascii('\n');
+    }
+
+    // Same field names as the JSON API
+    private static void writeNdjson(ExportWriter writer, ResultSet rs) throws IOException, SQLException {
+        writer.ascii("{\"id\":");
+        writer.number(rs.getLong(1));
+        writer.ascii(",\"name\":");
+        writer.json(rs.getString(2));
+        writer.ascii(",\"description\":");
+        writer.json(rs.getString(3));
+        writer.ascii(",\"price\":");
+        writer.decimal(rs.getBigDecimal(4));
+        writer.ascii(",\"category\":");
+        writer.json(rs.getString(5));
+        writer.ascii(",\"createdAt\":");
+        jsonTimestamp(writer, rs.getObject(6, LocalDateTime.class));
+        writer.ascii(",\"updatedAt\":");
+        jsonTimestamp(writer, rs.getObject(7, LocalDateTime.class));
+        writer.ascii("}\n");
+    }
+
+    private static void jsonTimestamp(ExportWriter writer, LocalDateTime value) throws IOException {
+        if (value == null) {
+            writer.ascii("null");
+            return;
+        }
+        writer.ascii('"');
+        writer.timestamp(value);
+        writer.ascii('"');
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.product_catalog_api.facet;
+
+import com.example.product_catalog_api.dto.FacetedProductPage.CategoryFacet;
+import com.example.product_catalog_api.dto.FacetedProductPage.PriceFacet;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.event.ProductVersions;
+import com.example.product_catalog_api.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bitmap index for faceted filtering.
+ *
+ * Every product owns a slot (a bit position); each category and each price
+ * bucket keeps a bitmap of its slots. Filters are ORs and ANDs of bitmaps and a
+ * facet count is the cardinality of an intersection, so neither needs the
+ * database. Only the two buckets at the edges of a price range are checked
+ * against the exact prices.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private static final int BUILD_PAGE_SIZE = 1000;
+    private static final int INITIAL_SLOTS = 1024;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${catalog.facets.price-bucket-width:100}")
+    private BigDecimal priceBucketWidth = BigDecimal.valueOf(100);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // all guarded by lock
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] ids = new long[INITIAL_SLOTS];
+    private String[] categories = new String[INITIAL_SLOTS];
+    private BigDecimal[] prices = new BigDecimal[INITIAL_SLOTS];
+    private int slotCount;
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, BitSet> categoryBitmaps = new HashMap<>();
+    private final TreeMap<Long, BitSet> bucketBitmaps = new TreeMap<>();
+    private final ProductVersions versions = new ProductVersions();
+    private Set<Long> changedDuringBuild;
+
+    private volatile boolean ready;
+
+    /**
+     * Matching product ids in id order plus the facet counts of the whole match.
+     */
+    public record Result(List<Long> ids, long total, List<CategoryFacet> categories, List<PriceFacet> priceBuckets) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every product page by page so only one page is held at a time.
+     * Changes committed while the build runs win over the (older) page contents.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            ids = new long[INITIAL_SLOTS];
+            categories = new String[INITIAL_SLOTS];
+            prices = new BigDecimal[INITIAL_SLOTS];
+            slotCount = 0;
+            freeSlots.clear();
+            live.clear();
+            categoryBitmaps.clear();
+            bucketBitmaps.clear();
+            versions.clear();
+            changedDuringBuild = new HashSet<>();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long cursor = 0L;
+        List<Product> page;
+        do {
+            page = productRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(BUILD_PAGE_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Product product : page) {
+                    if (!changedDuringBuild.contains(product.getId())) {
+                        ProductState state = ProductState.of(product);
+                        versions.loaded(state);
+                        put(state);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == BUILD_PAGE_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+            ready = true;
+            log.info("Product facet index built: {} products, {} categories, {} price buckets in {} ms",
+                    slots.size(), categoryBitmaps.size(), bucketBitmaps.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!versions.accept(event)) {
+                return;
+            }
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.getProductId());
+            }
+            if (event.getAfter() != null) {
+                put(event.getAfter());
+            } else {
+                remove(event.getProductId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filters by categories (any of them), an inclusive price range and a set of
+     * text matches; each filter is skipped when empty or null. Returns up to
+     * {@code limit} ids greater than {@code afterId}. Each facet is counted with
+     * every filter except its own, so the counts show what picking another
+     * category or bucket would return.
+     */
+    public Result query(Collection<String> selectedCategories, BigDecimal minPrice, BigDecimal maxPrice,
+                        Set<Long> textMatches, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (textMatches != null) {
+                base.and(slotsOf(textMatches));
+            }
+            BitSet categoryFilter = selectedCategories.isEmpty() ? null : categoryBitmap(selectedCategories);
+            BitSet priceFilter = minPrice == null && maxPrice == null ? null : priceBitmap(minPrice, maxPrice);
+
+            BitSet matches = and(and(base, categoryFilter), priceFilter);
+
+            BitSet categoryScope = and(base, priceFilter);
+            List<CategoryFacet> categoryFacets = new ArrayList<>();
+            for (Map.Entry<String, BitSet> entry : categoryBitmaps.entrySet()) {
+                long count = and(entry.getValue(), categoryScope).cardinality();
+                if (count > 0) {
+                    categoryFacets.add(new CategoryFacet(entry.getKey(), count));
+                }
+            }
+            categoryFacets.sort(Comparator.comparingLong(CategoryFacet::count).reversed()
+                    .thenComparing(CategoryFacet::category));
+
+            BitSet priceScope = and(base, categoryFilter);
+            List<PriceFacet> priceFacets = new ArrayList<>();
+            for (Map.Entry<Long, BitSet> entry : bucketBitmaps.entrySet()) {
+                long count = and(entry.getValue(), priceScope).cardinality();
+                if (count > 0) {
+                    BigDecimal from = priceBucketWidth.multiply(BigDecimal.valueOf(entry.getKey()));
+                    priceFacets.add(new PriceFacet(from, from.add(priceBucketWidth), count));
+                }
+            }
+
+            return new Result(page(matches, afterId, limit), matches.cardinality(), categoryFacets, priceFacets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Smallest matching ids above the cursor; slots are reused, so slot order is not id order.
+    // A max-heap of the limit smallest ids seen so far keeps this O(n log limit), not a sort of n
+    private List<Long> page(BitSet matches, long afterId, int limit) {
+        long[] heap = new long[Math.max(0, Math.min(limit, matches.cardinality()))];
+        int size = 0;
+        for (int slot = matches.nextSetBit(0); slot >= 0 && heap.length > 0; slot = matches.nextSetBit(slot + 1)) {
+            long id = ids[slot];
+            if (id <= afterId) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = id;
+                siftUp(heap, size++);
+            } else if (id < heap[0]) {
+                heap[0] = id;
+                siftDown(heap, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        List<Long> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(heap[i]);
+        }
+        return result;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long value = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long value = heap[0];
+        int i = 0;
+        for (int child = 1; child < size; child = 2 * i + 1) {
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    private BitSet slotsOf(Set<Long> productIds) {
+        BitSet result = new BitSet(slotCount);
+        for (Long id : productIds) {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                result.set(slot);
+            }
+        }
+        return result;
+    }
+
+    private BitSet categoryBitmap(Collection<String> selected) {
+        BitSet result = new BitSet(slotCount);
+        for (String category : selected) {
+            BitSet bitmap = categoryBitmaps.get(category);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    private BitSet priceBitmap(BigDecimal minPrice, BigDecimal maxPrice) {
+        Long first = minPrice == null ? null : bucketOf(minPrice);
+        Long last = maxPrice == null ? null : bucketOf(maxPrice);
+        NavigableMap<Long, BitSet> range = bucketBitmaps;
+        if (first != null) {
+            range = range.tailMap(first, true);
+        }
+        if (last != null) {
+            range = range.headMap(last, true);
+        }
+
+        BitSet result = new BitSet(slotCount);
+        for (Map.Entry<Long, BitSet> entry : range.entrySet()) {
+            BitSet bucket = entry.getValue();
+            boolean edge = entry.getKey().equals(first) || entry.getKey().equals(last);
+            if (!edge) {
+                result.or(bucket);
+                continue;
+            }
+            for (int slot = bucket.nextSetBit(0); slot >= 0; slot = bucket.nextSetBit(slot + 1)) {
+                BigDecimal price = prices[slot];
+                if ((minPrice == null || price.compareTo(minPrice) >= 0)
+                        && (maxPrice == null || price.compareTo(maxPrice) <= 0)) {
+                    result.set(slot);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Intersection as a new bitmap; a null filter matches everything
+    private static BitSet and(BitSet bitmap, BitSet filter) {
+        BitSet result = (BitSet) bitmap.clone();
+        if (filter != null) {
+            result.and(filter);
+        }
+        return result;
+    }
+
+    private long bucketOf(BigDecimal price) {
+        return price.divide(priceBucketWidth, 0, RoundingMode.FLOOR).longValue();
+    }
+
+    // caller holds the write lock
+    private void put(ProductState product) {
+        remove(product.id());
+
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        if (slot == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        // a blank category is no category, as for /stats and the snapshot
+        String category = product.category() == null || product.category().isBlank() ? null : product.category();
+        ids[slot] = product.id();
+        categories[slot] = category;
+        prices[slot] = product.price();
+        live.set(slot);
+        if (category != null) {
+            categoryBitmaps.computeIfAbsent(category, key -> new BitSet()).set(slot);
+        }
+        if (product.price() != null) {
+            bucketBitmaps.computeIfAbsent(bucketOf(product.price()), key -> new BitSet()).set(slot);
+        }
+        slots.put(product.id(), slot);
+    }
+
+    // caller holds the write lock
+    private void remove(Long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        live.clear(slot);
+        if (categories[slot] != null) {
+            clear(categoryBitmaps, categories[slot], slot);
+        }
+        if (prices[slot] != null) {
+            clear(bucketBitmaps, bucketOf(prices[slot]), slot);
+        }
+        categories[slot] = null;
+        prices[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private static <K> void clear(Map<K, BitSet> bitmaps, K key, int slot) {
+        BitSet bitmap = bitmaps.get(key);
+        bitmap.clear(slot);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.product_catalog_api.feed;
+
+import com.example.product_catalog_api.aggregate.InventoryAggregates;
+import com.example.product_catalog_api.cache.CatalogVersion;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.event.ProductVersions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent event stream of committed product changes, so dashboards can apply
+ * deltas instead of re-polling the list and the stats endpoints.
+ *
+ * Changes are buffered per subscriber and coalesced by product id (three updates
+ * to one product are delivered as its latest state), then flushed in one
+ * "changes" event per interval together with the current totals. A subscriber
+ * whose buffer overflows, because it is slow or the catalog is being bulk
+ * loaded, gets a single "reset" event and is expected to reload.
+ *
+ * After-commit listeners run on the committing threads, so like the in-memory
+ * indexes the feed drops a change that arrives after a newer one for the same
+ * product; otherwise coalescing would keep the older state.
+ */
+@Component
+public class ProductChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    public record Change(ProductChangedEvent.Type type, Long id, ProductState product) {
+    }
+
+    public record Stats(long count, BigDecimal inventoryValue, long categoryCount) {
+    }
+
+    public record Batch(long version, List<Change> changes, Stats stats) {
+    }
+
+    static class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        // guarded by this
+        final Map<Long, Change> pending = new LinkedHashMap<>();
+        boolean overflowed;
+        long lastSent = System.nanoTime();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    @Autowired
+    private InventoryAggregates inventoryAggregates;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    @Qualifier("feedExecutor")
+    private ThreadPoolTaskExecutor feedExecutor;
+
+    @Value("${catalog.feed.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${catalog.feed.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${catalog.feed.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${catalog.feed.heartbeat-interval:PT15S}")
+    private Duration heartbeatInterval;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // also serializes buffering, so changes reach every subscriber in the order accepted
+    private final ProductVersions versions = new ProductVersions();
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Opens a stream that starts with a "hello" event carrying the current
+     * totals; the client loads the catalog once and then applies the changes.
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = register(emitter);
+        try {
+            emitter.send(SseEmitter.event().name("hello").data(new Batch(catalogVersion.getVersion(), List.of(), stats())));
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    Subscriber register(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (versions) {
+            if (!versions.accept(event)) {
+                return;
+            }
+            for (Subscriber subscriber : subscribers) {
+                synchronized (subscriber) {
+                    if (subscriber.overflowed) {
+                        continue;
+                    }
+                    coalesce(subscriber.pending, event);
+                    if (subscriber.pending.size() > bufferSize) {
+                        subscriber.pending.clear();
+                        subscriber.overflowed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // Folds the event into the pending change for its product
+    static void coalesce(Map<Long, Change> pending, ProductChangedEvent event) {
+        Long id = event.getProductId();
+        Change previous = pending.remove(id);
+        ProductChangedEvent.Type type = event.getType();
+        if (previous != null && previous.type() == ProductChangedEvent.Type.CREATED) {
+            if (type == ProductChangedEvent.Type.DELETED) {
+                // the subscriber never saw it
+                return;
+            }
+            type = ProductChangedEvent.Type.CREATED;
+        }
+        pending.put(id, new Change(type, id, event.getAfter()));
+    }
+
+    /**
+     * Hands every subscriber with something to deliver to the sender pool. A
+     * subscriber has at most one send in flight, so a slow client only delays
+     * itself while its buffer fills up.
+     */
+    @Scheduled(fixedDelayString = "${catalog.feed.flush-interval:PT0.25S}")
+    public void flush() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            boolean due;
+            synchronized (subscriber) {
+                due = subscriber.overflowed || !subscriber.pending.isEmpty()
+                        || now - subscriber.lastSent > heartbeatInterval.toNanos();
+            }
+            if (due && subscriber.sending.compareAndSet(false, true)) {
+                feedExecutor.execute(() -> send(subscriber));
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            List<Change> changes;
+            boolean reset;
+            synchronized (subscriber) {
+                changes = new ArrayList<>(subscriber.pending.values());
+                reset = subscriber.overflowed;
+                subscriber.pending.clear();
+                subscriber.overflowed = false;
+                subscriber.lastSent = System.nanoTime();
+            }
+            if (reset) {
+                subscriber.emitter.send(SseEmitter.event().name("reset").data(Map.of("version", catalogVersion.getVersion())));
+            } else if (!changes.isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event().name("changes")
+                        .data(new Batch(catalogVersion.getVersion(), changes, stats())));
+            } else {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping change feed subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private Stats stats() {
+        if (!inventoryAggregates.isReady()) {
+            return null;
+        }
+        return new Stats(inventoryAggregates.getProductCount(), inventoryAggregates.getTotalValue(),
+                inventoryAggregates.getCategoryCount());
+    }
+}
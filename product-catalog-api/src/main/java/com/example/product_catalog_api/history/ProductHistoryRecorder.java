@@ -0,0 +1,286 @@
+package com.example.product_catalog_api.history;
+
+import com.example.product_catalog_api.entity.ProductHistory;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.repository.ProductBatchRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind product history. Committed changes are queued in memory and
+ * appended to product_history in batches by a scheduled flush, so a write pays
+ * for an enqueue instead of a second INSERT.
+ *
+ * The queue is a ConcurrentLinkedQueue bounded by a CAS-maintained size, so
+ * writers never block on each other or on the flush. When it is full the
+ * overflow policy decides: BLOCK makes the writer wait for the flush to make
+ * room, for at most catalog.history.offer-timeout, DROP_NEWEST discards the new
+ * entry and DROP_OLDEST the oldest queued one. Entries still queued at shutdown
+ * are flushed; entries queued when the process dies are lost.
+ *
+ * A blocked writer is still in its after-commit callback and holds its pooled
+ * connection, so it never opens a transaction of its own: with every connection
+ * held by overflowing writers that would wait for one forever. The offer timeout
+ * is kept well under the pool's connection timeout, so even when waiting writers
+ * hold the connection the flush needs, they give up first and let it through.
+ *
+ * Queue depth, flush lag and every counter of {@link #getStats} are also
+ * published as catalog.history.* meters.
+ */
+@Component
+public class ProductHistoryRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductHistoryRecorder.class);
+
+    public enum OverflowPolicy {
+        BLOCK, DROP_NEWEST, DROP_OLDEST
+    }
+
+    private record Pending(ProductHistory row, long enqueuedAt) {
+    }
+
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${catalog.history.capacity:10000}")
+    private int capacity = 10000;
+
+    @Value("${catalog.history.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${catalog.history.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    @Value("${catalog.history.offer-timeout:PT1S}")
+    private Duration offerTimeout = Duration.ofSeconds(1);
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // BLOCK writers wait on notFull; the flush signals it after taking a batch off the queue
+    private final ReentrantLock spaceLock = new ReentrantLock();
+    private final Condition notFull = spaceLock.newCondition();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicLong lastFlushLagNanos = new AtomicLong();
+    private final AtomicLong maxFlushLagNanos = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("catalog.history.queue", size, AtomicInteger::get)
+                    .description("History entries waiting to be written")
+                    .register(registry);
+            Gauge.builder("catalog.history.capacity", this, recorder -> recorder.capacity)
+                    .description("History entries the queue holds before the overflow policy applies")
+                    .register(registry);
+            Gauge.builder("catalog.history.queue.oldest", this, ProductHistoryRecorder::oldestQueuedSeconds)
+                    .description("How long the oldest queued history entry has waited")
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("catalog.history.flush.lag", lastFlushLagNanos, nanos -> nanos.get() / 1e9)
+                    .description("How long the first entry of the last written batch had waited")
+                    .baseUnit("seconds")
+                    .register(registry);
+            counter(registry, "catalog.history.enqueued", enqueued, "History entries queued");
+            counter(registry, "catalog.history.written", written, "History entries written by the flush");
+            counter(registry, "catalog.history.blocked", blocked,
+                    "History entries whose writer waited for room because the queue was full");
+            counter(registry, "catalog.history.dropped", dropped,
+                    "History entries dropped because the queue was full or stayed full past the offer timeout");
+            counter(registry, "catalog.history.failed", failed, "History entries lost to a failed insert");
+            counter(registry, "catalog.history.batches", batches, "History batches written");
+        });
+    }
+
+    private static void counter(MeterRegistry registry, String name, LongAdder count, String description) {
+        FunctionCounter.builder(name, count, LongAdder::sum)
+                .description(description)
+                .register(registry);
+    }
+
+    private double oldestQueuedSeconds() {
+        Pending oldest = queue.peek();
+        return oldest == null ? 0 : (System.nanoTime() - oldest.enqueuedAt()) / 1e9;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        record(new ProductHistory(event, LocalDateTime.now()));
+    }
+
+    void record(ProductHistory row) {
+        Pending pending = new Pending(row, System.nanoTime());
+        if (tryEnqueue(pending)) {
+            enqueued.increment();
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> dropped.increment();
+            case DROP_OLDEST -> {
+                do {
+                    if (queue.poll() != null) {
+                        size.decrementAndGet();
+                        dropped.increment();
+                    }
+                } while (!tryEnqueue(pending));
+                enqueued.increment();
+            }
+            case BLOCK -> {
+                blocked.increment();
+                if (enqueueWithin(pending, offerTimeout.toNanos())) {
+                    enqueued.increment();
+                } else {
+                    dropped.increment();
+                    log.warn("Dropped a product history entry: queue still full after {}", offerTimeout);
+                }
+            }
+        }
+    }
+
+    private boolean enqueueWithin(Pending pending, long timeoutNanos) {
+        spaceLock.lock();
+        try {
+            long remaining = timeoutNanos;
+            while (!tryEnqueue(pending)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+
+    private void signalNotFull() {
+        spaceLock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+
+    private boolean tryEnqueue(Pending pending) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        queue.add(pending);
+        return true;
+    }
+
+    /**
+     * Drains the queue in batches of catalog.history.batch-size.
+     */
+    @Scheduled(fixedDelayString = "${catalog.history.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            Pending pending;
+            while (true) {
+                while (batch.size() < batchSize && (pending = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    batch.add(pending);
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                signalNotFull();
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // only called by the flush, so written and batches count what it wrote
+    private void write(List<Pending> batch) {
+        List<ProductHistory> rows = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            rows.add(pending.row());
+        }
+        try {
+            productBatchRepository.insertHistory(rows);
+        } catch (DataAccessException e) {
+            failed.add(batch.size());
+            log.error("Lost {} product history entries: {}", batch.size(), e.getMostSpecificCause().getMessage());
+            return;
+        }
+        // the first entry of a batch has waited longest
+        long lag = System.nanoTime() - batch.get(0).enqueuedAt();
+        lastFlushLagNanos.set(lag);
+        maxFlushLagNanos.accumulateAndGet(lag, Math::max);
+        written.add(batch.size());
+        batches.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        Pending oldest = queue.peek();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queued", size.get());
+        result.put("capacity", capacity);
+        result.put("overflowPolicy", overflowPolicy);
+        result.put("offerTimeoutMillis", offerTimeout.toMillis());
+        result.put("enqueued", enqueued.sum());
+        result.put("written", written.sum());
+        result.put("blocked", blocked.sum());
+        result.put("dropped", dropped.sum());
+        result.put("failed", failed.sum());
+        result.put("batches", batches.sum());
+        result.put("oldestQueuedMillis", oldest == null ? 0
+                : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAt()));
+        result.put("lastFlushLagMillis", TimeUnit.NANOSECONDS.toMillis(lastFlushLagNanos.get()));
+        result.put("maxFlushLagMillis", TimeUnit.NANOSECONDS.toMillis(maxFlushLagNanos.get()));
+        return result;
+    }
+}
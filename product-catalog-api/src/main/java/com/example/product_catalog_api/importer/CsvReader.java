@@ -0,0 +1,115 @@
+package com.example.product_catalog_api.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma separated, double-quoted fields may contain
+ * commas, quotes ("") and line breaks. Reads one record at a time, so only the
+ * current record is ever held in memory.
+ */
+class CsvReader implements Closeable {
+
+    private final Reader in;
+    private final StringBuilder field = new StringBuilder();
+    private int pending = -2;
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Line number the last returned record started on
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Returns the next non-empty record, or null at end of input.
+     */
+    List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\n') {
+                line++;
+                continue;
+            }
+            if (c == '\r') {
+                continue;
+            }
+            unread(c);
+            return readRecord();
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        recordLine = line;
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int nextChar = read();
+                    if (nextChar == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(nextChar);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\n' || c == -1) {
+                values.add(field.toString());
+                if (c == '\n') {
+                    line++;
+                }
+                return values;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
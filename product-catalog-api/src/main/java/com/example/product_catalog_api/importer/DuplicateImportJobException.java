@@ -0,0 +1,11 @@
+package com.example.product_catalog_api.importer;
+
+/**
+ * Thrown when an import is started with a job id a retained job already has.
+ */
+public class DuplicateImportJobException extends RuntimeException {
+
+    public DuplicateImportJobException(String jobId) {
+        super("Import job already exists with id: " + jobId);
+    }
+}
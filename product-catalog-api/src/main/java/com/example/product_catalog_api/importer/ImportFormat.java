@@ -0,0 +1,27 @@
+package com.example.product_catalog_api.importer;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV, NDJSON;
+
+    /**
+     * Resolves the format from an explicit ?format= value, falling back to the
+     * request content type (text/csv or application/x-ndjson).
+     */
+    public static ImportFormat resolve(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        }
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/csv")) {
+                return CSV;
+            }
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+                return NDJSON;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format, use text/csv or application/x-ndjson");
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.product_catalog_api.importer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one streaming import. Counters are updated by the parsing and
+ * writing threads while the job runs and can be read at any time.
+ */
+public class ImportJob {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public record RowError(long line, String message) {
+    }
+
+    private final String id;
+    private final ImportFormat format;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final int maxReportedErrors;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final List<RowError> errors = new ArrayList<>();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failure;
+
+    public ImportJob(ImportFormat format, int maxReportedErrors) {
+        this(UUID.randomUUID().toString(), format, maxReportedErrors);
+    }
+
+    public ImportJob(String id, ImportFormat format, int maxReportedErrors) {
+        this.id = id;
+        this.format = format;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowsImported(long count) {
+        rowsImported.addAndGet(count);
+    }
+
+    // Every failed row is counted, only the first maxReportedErrors are kept for the report
+    void rowFailed(long line, String message) {
+        rowsFailed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.get();
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public List<RowError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.product_catalog_api.importer;
+
+import com.example.product_catalog_api.dto.BatchItemResult;
+import com.example.product_catalog_api.dto.BatchResult;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming product import. The request thread parses the upload row by row and
+ * hands chunks to a writer thread through a small bounded queue; when the
+ * database falls behind the queue fills up, parsing blocks and the upload stops
+ * being read, so memory stays bounded by chunk size times queue capacity no
+ * matter how large the file is.
+ *
+ * Each chunk is written through {@link ProductService#createProducts}, so rows get
+ * the same validation as single creates and are committed chunk by chunk.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_RETAINED_JOBS = 100;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("importExecutor")
+    private ThreadPoolTaskExecutor importExecutor;
+
+    @Value("${catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${catalog.import.max-in-flight-chunks:4}")
+    private int maxInFlightChunks;
+
+    @Value("${catalog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    // most recent jobs, oldest evicted first
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportJob> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    };
+
+    private record Row(long line, Product product) {
+    }
+
+    // marks the end of the input on the queue
+    private static final List<Row> END = Collections.emptyList();
+
+    public ImportJob getJob(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    public List<ImportJob> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /**
+     * Imports the whole stream and returns the finished job. The body is read on
+     * the caller's thread, so a caller that wants to follow progress passes its
+     * own job id and polls {@link #getJob} with it; without one a random id is
+     * assigned and the running job can only be found in {@link #getJobs}, which
+     * also lists the most recent finished ones.
+     *
+     * @throws DuplicateImportJobException if a retained job already has the given id
+     * @throws IllegalStateException       if the maximum number of imports is already
+     *                                     running; the job is recorded as failed
+     */
+    public ImportJob importProducts(InputStream body, ImportFormat format, String jobId) {
+        ImportJob job = jobId != null ? new ImportJob(jobId, format, maxReportedErrors)
+                : new ImportJob(format, maxReportedErrors);
+        synchronized (jobs) {
+            if (jobs.putIfAbsent(job.getId(), job) != null) {
+                throw new DuplicateImportJobException(job.getId());
+            }
+        }
+
+        BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(maxInFlightChunks);
+        Future<?> writer;
+        try {
+            writer = importExecutor.submit(() -> writeChunks(queue, job));
+        } catch (TaskRejectedException e) {
+            job.fail("Too many imports running, try again later");
+            log.warn("Import {} rejected: {} imports already running", job.getId(), importExecutor.getActiveCount());
+            throw new IllegalStateException(job.getFailure());
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            if (format == ImportFormat.CSV) {
+                parseCsv(reader, queue, writer, job);
+            } else {
+                parseNdjson(reader, queue, writer, job);
+            }
+            put(queue, END, writer);
+            writer.get();
+            job.complete();
+        } catch (ExecutionException e) {
+            job.fail(e.getCause().getMessage());
+        } catch (IOException | RuntimeException e) {
+            writer.cancel(true);
+            job.fail(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.cancel(true);
+            job.fail("Import interrupted");
+        }
+        log.info("Import {} {}: {} rows read, {} imported, {} failed",
+                job.getId(), job.getStatus(), job.getRowsRead(), job.getRowsImported(), job.getRowsFailed());
+        return job;
+    }
+
+    private void parseCsv(BufferedReader reader, BlockingQueue<List<Row>> queue, Future<?> writer, ImportJob job)
+            throws IOException, InterruptedException, ExecutionException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // strip a UTF-8 byte order mark from the first column name
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.put(name, i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must contain name and price columns");
+        }
+
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        List<String> values;
+        while ((values = csv.next()) != null) {
+            job.rowRead();
+            long line = csv.getRecordLine();
+            try {
+                Product product = new Product(
+                        column(values, columns, "name"),
+                        column(values, columns, "description"),
+                        parsePrice(column(values, columns, "price")),
+                        column(values, columns, "category"));
+                chunk.add(new Row(line, product));
+            } catch (IllegalArgumentException e) {
+                job.rowFailed(line, e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                put(queue, chunk, writer);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            put(queue, chunk, writer);
+        }
+    }
+
+    private void parseNdjson(BufferedReader reader, BlockingQueue<List<Row>> queue, Future<?> writer, ImportJob job)
+            throws IOException, InterruptedException, ExecutionException {
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            job.rowRead();
+            try {
+                Product product = objectMapper.readValue(text, Product.class);
+                // ids are always generated
+                product.setId(null);
+                chunk.add(new Row(line, product));
+            } catch (JacksonException e) {
+                job.rowFailed(line, "Malformed JSON: " + e.getOriginalMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                put(queue, chunk, writer);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            put(queue, chunk, writer);
+        }
+    }
+
+    // Blocks while the writer is behind; gives up if the writer has died
+    private static void put(BlockingQueue<List<Row>> queue, List<Row> chunk, Future<?> writer)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+            if (writer.isDone()) {
+                writer.get();
+                throw new IllegalStateException("Import writer stopped");
+            }
+        }
+    }
+
+    private void writeChunks(BlockingQueue<List<Row>> queue, ImportJob job) {
+        try {
+            List<Row> chunk;
+            while ((chunk = queue.take()) != END) {
+                List<Product> products = new ArrayList<>(chunk.size());
+                for (Row row : chunk) {
+                    products.add(row.product());
+                }
+                BatchResult result = productService.createProducts(products);
+                job.rowsImported(result.getSucceeded());
+                for (BatchItemResult item : result.getItems()) {
+                    if (!item.isSuccess()) {
+                        job.rowFailed(chunk.get(item.getIndex()).line(), item.getError());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price: " + value);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.product_catalog_api.metrics;
+
+import com.example.product_catalog_api.repository.ProductBatchRepository;
+import com.example.product_catalog_api.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.List;
+
+/**
+ * Times every public method of ProductService and ProductBatchRepository as
+ * catalog.method.invocations, tagged with the component, method and exception.
+ * Spring Data repositories are timed by Boot as spring.data.repository.invocations.
+ * The timer wraps the transaction, so it includes commit time.
+ */
+@Component
+public class MethodTimingPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+    private static final List<Class<?>> TIMED = List.of(ProductService.class, ProductBatchRepository.class);
+
+    public MethodTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        // resolved on first use; post-processors are created before the registry
+        SingletonSupplier<MeterRegistry> meterRegistry = SingletonSupplier.of(meterRegistryProvider::getObject);
+        MethodInterceptor interceptor = invocation -> {
+            Timer.Sample sample = Timer.start();
+            String exception = "none";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                sample.stop(Timer.builder("catalog.method.invocations")
+                        .description("ProductService and ProductBatchRepository method time")
+                        .tags("component", component(invocation.getThis()),
+                                "method", invocation.getMethod().getName(),
+                                "exception", exception)
+                        .register(meterRegistry.obtain()));
+            }
+        };
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut((ClassFilter) type -> component(type) != null), interceptor);
+        // outermost, ahead of the transaction interceptor
+        setBeforeExistingAdvisors(true);
+    }
+
+    private static String component(Object target) {
+        return target == null ? "unknown" : component(target.getClass());
+    }
+
+    private static String component(Class<?> type) {
+        for (Class<?> timed : TIMED) {
+            if (timed.isAssignableFrom(type)) {
+                return timed.getSimpleName();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.product_catalog_api.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-request database work: how many statements a request ran and how many
+ * entities it loaded, recorded per endpoint as catalog.request.statements and
+ * catalog.request.entities. A request that ran the same SELECT at least
+ * catalog.metrics.n-plus-one-threshold times counts towards
+ * catalog.request.n-plus-one and is logged once per endpoint and query.
+ */
+@Component
+public class RequestQueryMetrics implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestQueryMetrics.class);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${catalog.metrics.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold = 10;
+
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    public RequestQueryMetrics(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory) {
+        this.meterRegistry = meterRegistry;
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, event -> RequestQueryStats.entityLoaded());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestQueryStats.begin();
+        return true;
+    }
+
+    // the change feed hands its response to another thread; the request thread's part ends here
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestQueryStats.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestQueryStats stats = RequestQueryStats.end();
+        if (stats == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("catalog.request.statements")
+                .description("JDBC statements executed per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("catalog.request.entities")
+                .description("Entities loaded by Hibernate per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getEntitiesLoaded());
+
+        Map.Entry<String, Integer> repeated = stats.mostRepeatedSelect(nPlusOneThreshold);
+        if (repeated != null) {
+            Counter.builder("catalog.request.n-plus-one")
+                    .description("Requests that ran one SELECT repeatedly, typically once per row")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            if (reported.add(method + " " + uri + " " + repeated.getKey())) {
+                log.warn("Possible N+1 in {} {}: {} executions of {}", method, uri, repeated.getValue(), repeated.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.product_catalog_api.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements and entity loads of the request being handled on the current
+ * thread. Bound by {@link RequestQueryMetrics} for the length of a request; work
+ * on other threads (scheduled flushes, the import writer) is not attributed to
+ * any request.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entitiesLoaded;
+    // executions per distinct SQL, to spot one query repeated per row (N+1)
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static RequestQueryStats end() {
+        RequestQueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    static void statementExecuted(String sql) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void entityLoaded() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entitiesLoaded++;
+        }
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    /**
+     * The SELECT executed most often in this request and how often, or null if
+     * none was repeated at least {@code threshold} times.
+     */
+    Map.Entry<String, Integer> mostRepeatedSelect(int threshold) {
+        Map.Entry<String, Integer> worst = null;
+        for (Map.Entry<String, Integer> entry : executions.entrySet()) {
+            if (entry.getValue() >= threshold && entry.getKey().stripLeading().regionMatches(true, 0, "select", 0, 6)
+                    && (worst == null || entry.getValue() > worst.getValue())) {
+                worst = entry;
+            }
+        }
+        return worst;
+    }
+}
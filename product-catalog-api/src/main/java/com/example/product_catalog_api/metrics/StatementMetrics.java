@@ -0,0 +1,101 @@
+package com.example.product_catalog_api.metrics;
+
+import com.example.product_catalog_api.config.StatementTimingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement latency as catalog.jdbc.statements, per kind of statement and outcome,
+ * and the slow query log that replaces spring.jpa.show-sql. Statements slower than
+ * catalog.metrics.slow-query-threshold are sampled at
+ * catalog.metrics.slow-query-sample-rate into a bounded queue that a scheduled task
+ * logs, so the executing thread never waits on the log; when the queue is full the
+ * statement is only counted.
+ */
+@Component
+public class StatementMetrics implements StatementTimingDataSource.Listener {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementMetrics.class);
+
+    private static final String[] KINDS = {"select", "insert", "update", "delete", "other"};
+
+    private record SlowStatement(String sql, long nanos, boolean failed) {
+    }
+
+    // [kind][failed ? 1 : 0]
+    private final Timer[][] timers = new Timer[KINDS.length][2];
+    private final Counter slowStatements;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final BlockingQueue<SlowStatement> slowLog;
+    private final LongAdder notLogged = new LongAdder();
+
+    public StatementMetrics(MeterRegistry meterRegistry,
+                            @Value("${catalog.metrics.slow-query-threshold:PT0.5S}") Duration slowThreshold,
+                            @Value("${catalog.metrics.slow-query-sample-rate:1.0}") double sampleRate,
+                            @Value("${catalog.metrics.slow-query-log-capacity:100}") int logCapacity) {
+        for (int kind = 0; kind < KINDS.length; kind++) {
+            for (int failed = 0; failed < 2; failed++) {
+                timers[kind][failed] = Timer.builder("catalog.jdbc.statements")
+                        .description("JDBC statement execution time")
+                        .tags("kind", KINDS[kind], "outcome", failed == 1 ? "error" : "success")
+                        .register(meterRegistry);
+            }
+        }
+        this.slowStatements = Counter.builder("catalog.jdbc.slow-statements")
+                .description("Statements slower than catalog.metrics.slow-query-threshold")
+                .register(meterRegistry);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.slowLog = new ArrayBlockingQueue<>(logCapacity);
+    }
+
+    @Override
+    public void executed(String sql, long nanos, boolean failed) {
+        timers[kind(sql)][failed ? 1 : 0].record(nanos, TimeUnit.NANOSECONDS);
+        RequestQueryStats.statementExecuted(sql);
+        if (nanos >= slowThresholdNanos) {
+            slowStatements.increment();
+            if (ThreadLocalRandom.current().nextDouble() < sampleRate
+                    && !slowLog.offer(new SlowStatement(sql, nanos, failed))) {
+                notLogged.increment();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.metrics.slow-query-log-interval:PT1S}")
+    public void logSlowStatements() {
+        SlowStatement statement;
+        while ((statement = slowLog.poll()) != null) {
+            log.warn("Slow statement ({} ms{}): {}", TimeUnit.NANOSECONDS.toMillis(statement.nanos()),
+                    statement.failed() ? ", failed" : "", statement.sql());
+        }
+        long skipped = notLogged.sumThenReset();
+        if (skipped > 0) {
+            log.warn("{} more slow statements not logged, the slow query log is full", skipped);
+        }
+    }
+
+    private static int kind(String sql) {
+        String statement = sql.stripLeading();
+        for (int kind = 0; kind < KINDS.length - 1; kind++) {
+            if (statement.regionMatches(true, 0, KINDS[kind], 0, KINDS[kind].length())) {
+                return kind;
+            }
+        }
+        return KINDS.length - 1;
+    }
+}
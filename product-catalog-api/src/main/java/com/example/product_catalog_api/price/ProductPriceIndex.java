@@ -0,0 +1,226 @@
+package com.example.product_catalog_api.price;
+
+import com.example.product_catalog_api.aggregate.PriceCents;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.event.ProductVersions;
+import com.example.product_catalog_api.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory price order of the catalog for range and top/bottom-N reads.
+ *
+ * Every product is a (price in cents, id) key in a skip list for the whole
+ * catalog and one for its category, so a range starts with an O(log n) seek and
+ * then walks only the keys it returns; nothing is sorted per request. Reads take
+ * no lock, so they are only weakly consistent with concurrent reprices: a walk
+ * that has already passed a product's new key when its old key comes out skips
+ * it, and one that meets both keys sees it twice ({@link #collect} drops the
+ * second). Changes are applied one at a time, so a read never sees a half-made
+ * change to any other product.
+ */
+@Component
+public class ProductPriceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPriceIndex.class);
+
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // ordered by price, then id
+    private record Key(long cents, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byPrice = Long.compare(cents, other.cents);
+            return byPrice != 0 ? byPrice : Long.compare(id, other.id);
+        }
+    }
+
+    private record Listing(Key key, String category) {
+    }
+
+    private final ConcurrentSkipListSet<Key> all = new ConcurrentSkipListSet<>();
+    private final Map<String, ConcurrentSkipListSet<Key>> byCategory = new ConcurrentHashMap<>();
+
+    private final Object lock = new Object();
+
+    // guarded by lock
+    private final Map<Long, Listing> listings = new HashMap<>();
+    private final ProductVersions versions = new ProductVersions();
+    private Set<Long> changedDuringBuild;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * Loads every product page by page so only one page is held at a time.
+     * Changes committed while the build runs win over the (older) page contents.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (lock) {
+            ready = false;
+            all.clear();
+            byCategory.clear();
+            listings.clear();
+            versions.clear();
+            changedDuringBuild = new HashSet<>();
+        }
+
+        long cursor = 0L;
+        List<Product> page;
+        do {
+            page = productRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(BUILD_PAGE_SIZE));
+            synchronized (lock) {
+                for (Product product : page) {
+                    if (!changedDuringBuild.contains(product.getId())) {
+                        ProductState state = ProductState.of(product);
+                        versions.loaded(state);
+                        put(state);
+                    }
+                }
+            }
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == BUILD_PAGE_SIZE);
+
+        synchronized (lock) {
+            changedDuringBuild = null;
+            ready = true;
+            log.info("Product price index built: {} products, {} categories in {} ms",
+                    listings.size(), byCategory.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (lock) {
+            if (!versions.accept(event)) {
+                return;
+            }
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.getProductId());
+            }
+            if (event.getAfter() != null) {
+                put(event.getAfter());
+            } else {
+                remove(event.getProductId());
+            }
+        }
+    }
+
+    /**
+     * Ids of up to {@code limit} products priced within [minPrice, maxPrice],
+     * cheapest first; a null bound is open and a null category means all of them.
+     */
+    public List<Long> range(String category, BigDecimal minPrice, BigDecimal maxPrice, int limit) {
+        long from = minPrice == null ? Long.MIN_VALUE : PriceCents.ceiling(minPrice);
+        long to = maxPrice == null ? Long.MAX_VALUE : PriceCents.floor(maxPrice);
+        NavigableSet<Key> keys = keys(category);
+        if (keys == null || from > to) {
+            return List.of();
+        }
+        return collect(keys.subSet(new Key(from, Long.MIN_VALUE), true, new Key(to, Long.MAX_VALUE), true), limit);
+    }
+
+    /**
+     * Ids of the {@code limit} most expensive products, most expensive first.
+     */
+    public List<Long> highest(String category, int limit) {
+        NavigableSet<Key> keys = keys(category);
+        return keys == null ? List.of() : collect(keys.descendingSet(), limit);
+    }
+
+    /**
+     * Ids of the {@code limit} cheapest products, cheapest first.
+     */
+    public List<Long> lowest(String category, int limit) {
+        NavigableSet<Key> keys = keys(category);
+        return keys == null ? List.of() : collect(keys, limit);
+    }
+
+    private NavigableSet<Key> keys(String category) {
+        return category == null ? all : byCategory.get(category);
+    }
+
+    private static List<Long> collect(NavigableSet<Key> keys, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        Set<Long> seen = new HashSet<>();
+        for (Key key : keys) {
+            if (ids.size() == limit) {
+                break;
+            }
+            if (seen.add(key.id())) {
+                ids.add(key.id());
+            }
+        }
+        return ids;
+    }
+
+    // caller holds the lock
+    private void put(ProductState product) {
+        Key key = new Key(PriceCents.of(product.price()), product.id());
+        Listing previous = listings.put(product.id(), new Listing(key, product.category()));
+        all.add(key);
+        if (product.category() != null) {
+            byCategory.computeIfAbsent(product.category(), c -> new ConcurrentSkipListSet<>()).add(key);
+        }
+        if (previous != null) {
+            unlist(previous, key, product.category());
+        }
+    }
+
+    // caller holds the lock
+    private void remove(Long id) {
+        Listing previous = listings.remove(id);
+        if (previous != null) {
+            unlist(previous, null, null);
+        }
+    }
+
+    // Takes out what is no longer current: the old key, and the old category's entry if it moved
+    private void unlist(Listing previous, Key current, String currentCategory) {
+        if (!previous.key().equals(current)) {
+            all.remove(previous.key());
+        }
+        String category = previous.category();
+        if (category == null || (previous.key().equals(current) && category.equals(currentCategory))) {
+            return;
+        }
+        ConcurrentSkipListSet<Key> keys = byCategory.get(category);
+        keys.remove(previous.key());
+        if (keys.isEmpty()) {
+            byCategory.remove(category);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.product_catalog_api.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for catalog-wide aggregates computed by the database.
+ */
+public interface CatalogTotals {
+
+    long getCount();
+
+    BigDecimal getTotalValue();
+
+    long getCategoryCount();
+
+    BigDecimal getMinPrice();
+
+    BigDecimal getMaxPrice();
+
+    Double getAvgPrice();
+}
@@ -0,0 +1,11 @@
+package com.example.product_catalog_api.repository;
+
+/**
+ * Projection for per-category row counts computed by the database.
+ */
+public interface CategoryCount {
+
+    String getCategory();
+
+    long getCount();
+}
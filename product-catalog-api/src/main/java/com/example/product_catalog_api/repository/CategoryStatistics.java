@@ -0,0 +1,21 @@
+package com.example.product_catalog_api.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for per-category price statistics computed by the database.
+ */
+public interface CategoryStatistics {
+
+    String getCategory();
+
+    long getCount();
+
+    BigDecimal getTotalValue();
+
+    BigDecimal getMinPrice();
+
+    BigDecimal getMaxPrice();
+
+    Double getAvgPrice();
+}
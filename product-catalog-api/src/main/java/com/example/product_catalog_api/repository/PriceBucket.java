@@ -0,0 +1,12 @@
+package com.example.product_catalog_api.repository;
+
+/**
+ * Projection for one price histogram bucket: products with
+ * bucket * width <= price < (bucket + 1) * width.
+ */
+public interface PriceBucket {
+
+    Number getBucket();
+
+    long getCount();
+}
@@ -0,0 +1,13 @@
+package com.example.product_catalog_api.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for the lowest and highest price in the catalog.
+ */
+public interface PriceRange {
+
+    BigDecimal getMinPrice();
+
+    BigDecimal getMaxPrice();
+}
@@ -0,0 +1,230 @@
+package com.example.product_catalog_api.repository;
+
+import com.example.product_catalog_api.entity.ProductHistory;
+import com.example.product_catalog_api.event.ProductState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Plain JDBC batches for bulk product writes. Product ids are IDENTITY generated,
+ * which stops Hibernate from batching inserts, so bulk paths go through
+ * JdbcTemplate instead (rewriteBatchedStatements turns each batch into
+ * multi-row statements on MySQL).
+ */
+@Repository
+public class ProductBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, description, price, category, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE products SET name = ?, description = ?, price = ?, category = ?, updated_at = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+    private static final String DELETE_SQL =
+            "DELETE FROM products WHERE id = ? AND version = ?";
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO product_history (product_id, change_type, old_name, new_name, old_price, new_price, " +
+            "old_category, new_category, changed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String VERSION_SQL =
+            "SELECT COUNT(*) FROM products WHERE id = ? AND version = ?";
+    private static final String SELECT_SQL =
+            "SELECT id, name, description, price, category, updated_at, version FROM products WHERE id IN (";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * A row's current state and the version it is at.
+     */
+    public record VersionedState(ProductState state, long version) {
+    }
+
+    /**
+     * Inserts the rows in one batch and returns their generated ids, in order.
+     */
+    public List<Long> insert(List<ProductState> rows, LocalDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductState row = rows.get(i);
+                        ps.setString(1, row.name());
+                        ps.setString(2, row.description());
+                        ps.setBigDecimal(3, row.price());
+                        ps.setString(4, row.category());
+                        ps.setTimestamp(5, timestamp);
+                        ps.setTimestamp(6, timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keyHolder);
+
+        // key column is GENERATED_KEY on MySQL and ID elsewhere, so take the first value
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Writes each row in one batch, but only while it is still at the matching
+     * version, and bumps the version in the same statement. Returns the update
+     * count of each row: 0 where the row was changed or deleted in the meantime.
+     */
+    public int[] updateIfVersions(List<ProductState> rows, List<Long> versions) {
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ProductState row = rows.get(i);
+                ps.setString(1, row.name());
+                ps.setString(2, row.description());
+                ps.setBigDecimal(3, row.price());
+                ps.setString(4, row.category());
+                ps.setTimestamp(5, Timestamp.valueOf(row.updatedAt()));
+                ps.setLong(6, row.id());
+                ps.setLong(7, versions.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * Whether the row still exists at the given version.
+     */
+    public boolean isAtVersion(Long id, long version) {
+        Integer count = jdbcTemplate.queryForObject(VERSION_SQL, Integer.class, id, version);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Writes the columns that differ between before and after, but only while the
+     * row is still at the given version, and bumps the version in the same
+     * statement. Returns false when the row was changed or deleted in the meantime.
+     */
+    public boolean updateIfVersion(ProductState before, ProductState after, long version) {
+        StringBuilder sql = new StringBuilder("UPDATE products SET ");
+        List<Object> args = new ArrayList<>();
+        if (!Objects.equals(before.name(), after.name())) {
+            sql.append("name = ?, ");
+            args.add(after.name());
+        }
+        if (!Objects.equals(before.description(), after.description())) {
+            sql.append("description = ?, ");
+            args.add(after.description());
+        }
+        if (before.price().compareTo(after.price()) != 0) {
+            sql.append("price = ?, ");
+            args.add(after.price());
+        }
+        if (!Objects.equals(before.category(), after.category())) {
+            sql.append("category = ?, ");
+            args.add(after.category());
+        }
+        sql.append("updated_at = ?, version = version + 1 WHERE id = ? AND version = ?");
+        args.add(Timestamp.valueOf(after.updatedAt()));
+        args.add(after.id());
+        args.add(version);
+        return jdbcTemplate.update(sql.toString(), args.toArray()) == 1;
+    }
+
+    /**
+     * Deletes each row in one batch, but only while it is still at the given
+     * version. Returns the update count of each row: 0 where the row was changed
+     * or deleted in the meantime.
+     */
+    public int[] deleteIfVersions(List<ProductState> rows) {
+        return jdbcTemplate.batchUpdate(DELETE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, rows.get(i).id());
+                ps.setLong(2, rows.get(i).version());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * Appends history rows in one batch, outside of any product transaction.
+     */
+    public void insertHistory(List<ProductHistory> rows) {
+        jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ProductHistory row = rows.get(i);
+                ps.setLong(1, row.getProductId());
+                ps.setString(2, row.getChangeType().name());
+                ps.setString(3, row.getOldName());
+                ps.setString(4, row.getNewName());
+                ps.setBigDecimal(5, row.getOldPrice());
+                ps.setBigDecimal(6, row.getNewPrice());
+                ps.setString(7, row.getOldCategory());
+                ps.setString(8, row.getNewCategory());
+                ps.setTimestamp(9, Timestamp.valueOf(row.getChangedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * Current state and version of the given rows, keyed by id. With forUpdate the
+     * rows are locked, in id order, until the transaction ends, so a conditional
+     * update at the version read cannot miss.
+     */
+    public Map<Long, VersionedState> findVersionedStates(Collection<Long> ids, boolean forUpdate) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String sql = SELECT_SQL + String.join(",", Collections.nCopies(ids.size(), "?")) + ")"
+                + (forUpdate ? " ORDER BY id FOR UPDATE" : "");
+        Map<Long, VersionedState> states = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            ProductState state = new ProductState(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    rs.getBigDecimal("price"),
+                    rs.getString("category"),
+                    updatedAt != null ? updatedAt.toLocalDateTime() : null,
+                    rs.getLong("version"));
+            states.put(state.id(), new VersionedState(state, state.version()));
+        }, ids.toArray());
+        return states;
+    }
+}
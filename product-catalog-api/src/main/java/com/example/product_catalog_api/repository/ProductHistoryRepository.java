@@ -0,0 +1,17 @@
+package com.example.product_catalog_api.repository;
+
+import com.example.product_catalog_api.entity.ProductHistory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductHistoryRepository extends JpaRepository<ProductHistory, Long> {
+
+    // Newest first, served by idx_product_history_product_time
+    List<ProductHistory> findByProductIdAndChangedAtBetweenOrderByChangedAtDescIdDesc(
+            Long productId, LocalDateTime from, LocalDateTime to, Limit limit);
+}
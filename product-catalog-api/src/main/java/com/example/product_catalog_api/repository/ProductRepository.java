@@ -1,24 +1,111 @@
 package com.example.product_catalog_api.repository;
 
+import com.example.product_catalog_api.cache.HibernateCacheRegions;
+import com.example.product_catalog_api.dto.ProductSummary;
 import com.example.product_catalog_api.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    // Few distinct categories asked for all the time: results are kept in the query cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheRegions.CATEGORY_QUERIES)
+    })
     List<Product> findByCategory(String category);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheRegions.CATEGORY_QUERIES)
+    })
     @Query("SELECT p FROM Product p WHERE p.category = :cat ORDER BY p.price DESC")
     List<Product> findProductsByCategorySortedByPrice(@Param("cat") String category);
 
+    // List views: only the summary columns, read as records instead of entities
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheRegions.CATEGORY_QUERIES)
+    })
+    @Query("SELECT new com.example.product_catalog_api.dto.ProductSummary(p.id, p.name, p.price, p.category) " +
+            "FROM Product p WHERE p.category = :cat")
+    List<ProductSummary> findSummariesByCategory(@Param("cat") String category);
+
+    @Query("SELECT new com.example.product_catalog_api.dto.ProductSummary(p.id, p.name, p.price, p.category) " +
+            "FROM Product p WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.product_catalog_api.dto.ProductSummary(p.id, p.name, p.price, p.category) " +
+            "FROM Product p ORDER BY p.id")
+    Stream<ProductSummary> streamSummariesOrderById();
+
     List<Product> findByPriceLessThan(BigDecimal price);
 
+    // Price order with the limit pushed into the query; used until ProductPriceIndex is built
+    List<Product> findByPriceBetweenOrderByPriceAscIdAsc(BigDecimal min, BigDecimal max, Limit limit);
+
+    List<Product> findByCategoryAndPriceBetweenOrderByPriceAscIdAsc(String category, BigDecimal min, BigDecimal max,
+                                                                    Limit limit);
+
+    List<Product> findAllByOrderByPriceDescIdDesc(Limit limit);
+
+    List<Product> findByCategoryOrderByPriceDescIdDesc(String category, Limit limit);
+
     List<Product> findByNameContainingIgnoreCase(String name);
 
+    // LIKE 'x%' can use idx_products_name (case-insensitive under MySQL's default collation);
+    // suggestions until ProductSuggestIndex is built
+    List<Product> findByNameStartingWithOrderByNameAsc(String prefix, Limit limit);
+
+    // Keyset pagination: seeks on the primary key instead of OFFSET scans
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Forward-only cursor over the whole table, must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
+
+    // Aggregates computed in the database, used to reconcile the in-memory totals
+    @Query("SELECT COALESCE(SUM(p.price), 0) FROM Product p")
+    BigDecimal sumPrice();
+
+    @Query("SELECT p.category AS category, COUNT(p) AS count FROM Product p " +
+            "WHERE p.category IS NOT NULL AND TRIM(p.category) <> '' GROUP BY p.category")
+    List<CategoryCount> countByCategory();
+
+    // Statistics, all computed in the database without loading entities
+    @Query("SELECT COUNT(p) AS count, COALESCE(SUM(p.price), 0) AS totalValue, " +
+            "COUNT(DISTINCT CASE WHEN TRIM(p.category) <> '' THEN p.category END) AS categoryCount, " +
+            "MIN(p.price) AS minPrice, MAX(p.price) AS maxPrice, AVG(p.price) AS avgPrice FROM Product p")
+    CatalogTotals catalogTotals();
+
+    @Query("SELECT MIN(p.price) AS minPrice, MAX(p.price) AS maxPrice FROM Product p")
+    PriceRange priceRange();
+
+    @Query("SELECT p.category AS category, COUNT(p) AS count, SUM(p.price) AS totalValue, " +
+            "MIN(p.price) AS minPrice, MAX(p.price) AS maxPrice, AVG(p.price) AS avgPrice " +
+            "FROM Product p WHERE p.category IS NOT NULL AND TRIM(p.category) <> '' GROUP BY p.category")
+    List<CategoryStatistics> categoryStatistics();
+
+    // native so the bucket can be grouped by its alias
+    @Query(value = "SELECT FLOOR(price / :width) AS bucket, COUNT(*) AS count FROM products " +
+            "GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+    List<PriceBucket> priceHistogram(@Param("width") BigDecimal width);
+
 }
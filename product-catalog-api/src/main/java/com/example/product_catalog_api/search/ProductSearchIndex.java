@@ -0,0 +1,435 @@
+package com.example.product_catalog_api.search;
+
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.event.ProductVersions;
+import com.example.product_catalog_api.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, description and category.
+ *
+ * Every distinct term is also indexed by its 2- and 3-character grams, so a query
+ * term is resolved to the terms that contain it without scanning the dictionary:
+ * 2- and 3-character query terms are a single gram lookup, longer ones intersect
+ * their trigrams and verify the few candidates left. A single character is too
+ * common to be worth indexing, so it is looked up with a scan of the dictionary
+ * (not of the products, as the LIKE query it replaces did). Results are ranked
+ * by which field matched (name > category > description) and how well (exact >
+ * prefix > substring); every query term has to match.
+ *
+ * A term's postings are parallel arrays sorted by product id (8 bytes of id and
+ * one of field bits each), not a map of boxed entries.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int BUILD_PAGE_SIZE = 1000;
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 3;
+
+    // field bits, ordered by ranking weight
+    private static final int DESCRIPTION = 1;
+    private static final int CATEGORY = 2;
+    private static final int NAME = 4;
+    private static final int ALL_FIELDS = NAME | CATEGORY | DESCRIPTION;
+
+    /**
+     * The ids of the best matches, highest score first, and how many products matched in all.
+     */
+    public record Hits(List<Long> ids, int total) {
+    }
+
+    // One term's products and the fields it occurs in, sorted by id
+    private static final class Postings {
+
+        private final String term;
+        private long[] ids = new long[2];
+        private byte[] fields = new byte[2];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void put(long id, int field) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                fields[index] = (byte) field;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(fields, index, fields, index + 1, size - index);
+            ids[index] = id;
+            fields[index] = (byte) field;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(fields, index + 1, fields, index, size - index - 1);
+            size--;
+            if (size > 0 && size * 4 <= ids.length) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+                fields = Arrays.copyOf(fields, fields.length / 2);
+            }
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // all guarded by lock
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Set<String>> grams = new HashMap<>();
+    // the distinct terms of each product, sharing the postings' key strings
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final ProductVersions versions = new ProductVersions();
+    private Set<Long> changedDuringBuild;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every product page by page so only one page is held at a time.
+     * Changes committed while the build runs win over the (older) page contents.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            grams.clear();
+            documents.clear();
+            versions.clear();
+            changedDuringBuild = new HashSet<>();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long cursor = 0L;
+        List<Product> page;
+        do {
+            page = productRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(BUILD_PAGE_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Product product : page) {
+                    if (!changedDuringBuild.contains(product.getId())) {
+                        ProductState state = ProductState.of(product);
+                        versions.loaded(state);
+                        put(state);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == BUILD_PAGE_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+            ready = true;
+            log.info("Product search index built: {} products, {} terms in {} ms",
+                    documents.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!versions.accept(event)) {
+                return;
+            }
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.getProductId());
+            }
+            if (event.getAfter() != null) {
+                put(event.getAfter());
+            } else {
+                remove(event.getProductId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The best matching products across name, category and description.
+     */
+    public Hits search(String query, int limit) {
+        return top(score(query, ALL_FIELDS), limit);
+    }
+
+    /**
+     * The best matching products by name only.
+     */
+    public Hits searchNames(String query, int limit) {
+        return top(score(query, NAME), limit);
+    }
+
+    private static Hits top(Map<Long, Integer> scores, int limit) {
+        if (limit <= 0 || scores.isEmpty()) {
+            return new Hits(Collections.emptyList(), scores.size());
+        }
+
+        // bounded heap keeps top-k selection at O(n log k)
+        Comparator<Map.Entry<Long, Integer>> ranking = Map.Entry.<Long, Integer>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Integer>> top = new PriorityQueue<>(ranking);
+        for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return new Hits(ids, scores.size());
+    }
+
+    /**
+     * Returns the ids of every product matching the query, unranked.
+     */
+    public Set<Long> matchingIds(String query) {
+        return score(query, ALL_FIELDS).keySet();
+    }
+
+    // Summed scores of the products matching every query term in one of the fields
+    private Map<Long, Integer> score(String query, int fieldMask) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // the longest terms are the most selective: an empty intersection ends the query before a scan
+        queryTerms = new ArrayList<>(queryTerms);
+        queryTerms.sort(Comparator.comparingInt(String::length).reversed());
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryTerm : queryTerms) {
+                Map<Long, Integer> termScores = scoreTerm(queryTerm, fieldMask);
+                scores = scores == null ? termScores : intersect(scores, termScores);
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores;
+    }
+
+    // Best score per product for one query term across all the indexed terms containing it
+    private Map<Long, Integer> scoreTerm(String queryTerm, int fieldMask) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (String term : matchingTerms(queryTerm)) {
+            int quality = term.equals(queryTerm) ? 3 : term.startsWith(queryTerm) ? 2 : 1;
+            Postings termPostings = postings.get(term);
+            for (int i = 0; i < termPostings.size; i++) {
+                int fields = termPostings.fields[i] & fieldMask;
+                if (fields != 0) {
+                    scores.merge(termPostings.ids[i], quality * Integer.highestOneBit(fields), Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private Set<String> matchingTerms(String queryTerm) {
+        if (queryTerm.length() < MIN_GRAM) {
+            Set<String> matches = new HashSet<>();
+            for (String term : postings.keySet()) {
+                if (term.contains(queryTerm)) {
+                    matches.add(term);
+                }
+            }
+            return matches;
+        }
+        if (queryTerm.length() <= MAX_GRAM) {
+            return grams.getOrDefault(queryTerm, Collections.emptySet());
+        }
+
+        List<Set<String>> candidates = new ArrayList<>();
+        for (int i = 0; i + MAX_GRAM <= queryTerm.length(); i++) {
+            Set<String> terms = grams.get(queryTerm.substring(i, i + MAX_GRAM));
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            candidates.add(terms);
+        }
+        candidates.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> matches = new HashSet<>();
+        for (String term : candidates.get(0)) {
+            if (term.contains(queryTerm)) {
+                matches.add(term);
+            }
+        }
+        return matches;
+    }
+
+    private static Map<Long, Integer> intersect(Map<Long, Integer> left, Map<Long, Integer> right) {
+        Map<Long, Integer> small = left.size() <= right.size() ? left : right;
+        Map<Long, Integer> large = small == left ? right : left;
+        Map<Long, Integer> result = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : small.entrySet()) {
+            Integer other = large.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    // caller holds the write lock
+    private void put(ProductState product) {
+        remove(product.id());
+
+        Map<String, Integer> fields = new HashMap<>();
+        addTerms(fields, product.name(), NAME);
+        addTerms(fields, product.category(), CATEGORY);
+        addTerms(fields, product.description(), DESCRIPTION);
+
+        String[] terms = new String[fields.size()];
+        int count = 0;
+        for (Map.Entry<String, Integer> entry : fields.entrySet()) {
+            String term = entry.getKey();
+            Postings termPostings = postings.get(term);
+            if (termPostings == null) {
+                termPostings = new Postings(term);
+                postings.put(term, termPostings);
+                for (String gram : grams(term)) {
+                    grams.computeIfAbsent(gram, key -> new HashSet<>()).add(term);
+                }
+            }
+            termPostings.put(product.id(), entry.getValue());
+            // the dictionary's copy, so products do not each hold their own
+            terms[count++] = termPostings.term;
+        }
+        documents.put(product.id(), terms);
+    }
+
+    // caller holds the write lock
+    private void remove(Long id) {
+        String[] terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings termPostings = postings.get(term);
+            termPostings.remove(id);
+            if (termPostings.size == 0) {
+                postings.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> containing = grams.get(gram);
+                    containing.remove(term);
+                    if (containing.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> fields, String text, int field) {
+        for (String term : tokenize(text)) {
+            fields.merge(term, field, (a, b) -> a | b);
+        }
+    }
+
+    private static Set<String> grams(String term) {
+        Set<String> result = new HashSet<>();
+        for (int length = MIN_GRAM; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= term.length(); i++) {
+                result.add(term.substring(i, i + length));
+            }
+        }
+        return result;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
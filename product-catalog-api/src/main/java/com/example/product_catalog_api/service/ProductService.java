@@ -1,10 +1,20 @@
 package com.example.product_catalog_api.service;
 
+import com.example.product_catalog_api.dto.BatchResult;
+import com.example.product_catalog_api.dto.FacetedProductPage;
+import com.example.product_catalog_api.dto.ProductPage;
+import com.example.product_catalog_api.dto.ProductSuggestion;
+import com.example.product_catalog_api.dto.ProductSummary;
+import com.example.product_catalog_api.dto.SearchResult;
 import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.entity.ProductHistory;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
@@ -13,23 +23,56 @@ public interface ProductService {
 
     //Read
     List<Product> getAllProducts();
+    ProductPage getProductsPage(Long afterId, Integer size);
+    FacetedProductPage filterProducts(List<String> categories, BigDecimal minPrice, BigDecimal maxPrice,
+                                      String query, Long afterId, Integer size);
+    void streamAllProducts(Consumer<Product> action);
     Optional<Product> getProductById(Long id);
     List<Product> getProductsByCategory(String category);
     // Add this method to your ProductService interface
-    List<Product> searchProductsByName(String name);
+    // Ranked by name: at most size products (capped at catalog.search.max-results) and the match count
+    SearchResult<Product> searchProductsByName(String name, Integer size);
+    // Summary projections for list views (?fields=)
+    void streamAllProductSummaries(Consumer<ProductSummary> action);
+    List<ProductSummary> getProductSummariesByCategory(String category);
+    SearchResult<ProductSummary> searchProductSummariesByName(String name, Integer size);
+    // Price order: a range cheapest first, and the most and least expensive products
+    List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String category, Integer size);
+    List<Product> getMostExpensiveProducts(String category, Integer size);
+    List<Product> getCheapestProducts(String category, Integer size);
+    // Typeahead: names and categories with a word starting with the prefix, most popular first
+    List<ProductSuggestion> suggest(String prefix, Integer size);
 
     //Update
     Product updateProduct(Long id, Product productDetails);
+    Product patchProduct(Long id, Product changes);
 
     //Delete
     void deleteProduct(Long id);
 
+    //Bulk
+    BatchResult createProducts(List<Product> products);
+    BatchResult updateProducts(List<Product> products);
+    BatchResult deleteProducts(List<Long> ids);
+
     //Business Logic
     boolean existsById(Long id);
     long countProducts();
 
     BigDecimal calculateInventoryValue();
 
+    Map<String, Object> getCacheStats();
+
+    Map<String, Object> getCacheRegionStats();
+
+    Map<String, Object> getSnapshotStats();
+
+    // Change history, newest first
+    List<ProductHistory> getProductHistory(Long id, LocalDateTime from, LocalDateTime to, Integer size);
+    Map<String, Object> getHistoryStats();
+
+    Map<String, Object> getSuggestStats();
+
     long getCategoryCount();
 
 
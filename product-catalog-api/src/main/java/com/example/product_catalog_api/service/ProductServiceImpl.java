@@ -1,15 +1,60 @@
 package com.example.product_catalog_api.service;
 
+import com.example.product_catalog_api.aggregate.InventoryAggregates;
+import com.example.product_catalog_api.cache.HibernateCacheRegions;
+import com.example.product_catalog_api.cache.ProductCache;
+import com.example.product_catalog_api.dto.BatchItemResult;
+import com.example.product_catalog_api.dto.BatchResult;
+import com.example.product_catalog_api.dto.FacetedProductPage;
+import com.example.product_catalog_api.dto.ProductPage;
+import com.example.product_catalog_api.dto.ProductSuggestion;
+import com.example.product_catalog_api.dto.ProductSummary;
+import com.example.product_catalog_api.dto.SearchResult;
 import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.entity.ProductHistory;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.facet.ProductFacetIndex;
+import com.example.product_catalog_api.history.ProductHistoryRecorder;
+import com.example.product_catalog_api.price.ProductPriceIndex;
+import com.example.product_catalog_api.repository.ProductBatchRepository;
+import com.example.product_catalog_api.repository.ProductHistoryRepository;
+import com.example.product_catalog_api.repository.PriceRange;
 import com.example.product_catalog_api.repository.ProductRepository;
+import com.example.product_catalog_api.search.ProductSearchIndex;
+import com.example.product_catalog_api.snapshot.ProductSnapshot;
+import com.example.product_catalog_api.snapshot.ProductSnapshotStore;
+import com.example.product_catalog_api.suggest.ProductSuggestIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -18,94 +63,753 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private InventoryAggregates inventoryAggregates;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductPriceIndex productPriceIndex;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+
+    @Autowired
+    private HibernateCacheRegions hibernateCacheRegions;
+
+    @Autowired
+    private ProductHistoryRepository productHistoryRepository;
+
+    @Autowired
+    private ProductHistoryRecorder productHistoryRecorder;
+
+    @Autowired
+    private ProductSnapshotStore productSnapshotStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${catalog.products.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${catalog.products.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${catalog.search.max-results:100}")
+    private int maxSearchResults;
+
+    @Value("${catalog.suggest.max-results:10}")
+    private int maxSuggestions;
+
+    @Value("${catalog.products.update-retries:3}")
+    private int updateRetries;
+
+    @Value("${catalog.batch.chunk-size:1000}")
+    private int batchChunkSize;
+
     @Override
     public Product createProduct(Product product) {
         // Validation
         if (product.getPrice().compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Price cannot be negative");
         }
-        return productRepository.save(product);
+        // versions are assigned on insert
+        product.setVersion(null);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(saved));
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ProductPage getProductsPage(Long afterId, Integer size) {
+        int pageSize = pageSize(size);
+        long cursor = afterId == null ? 0L : afterId;
+
+        // fetch one extra row to know whether another page follows
+        List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new ProductPage(rows, null);
+        }
+        List<Product> items = rows.subList(0, pageSize);
+        return new ProductPage(items, items.get(pageSize - 1).getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FacetedProductPage filterProducts(List<String> categories, BigDecimal minPrice, BigDecimal maxPrice,
+                                             String query, Long afterId, Integer size) {
+        if (!productFacetIndex.isReady() || !productSearchIndex.isReady()) {
+            // both indexes are built once the application is ready
+            throw new IllegalStateException("Product indexes are still loading, try again shortly");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+        int pageSize = pageSize(size);
+        Set<Long> textMatches = query == null || query.isBlank() ? null : productSearchIndex.matchingIds(query);
+
+        // ask for one extra id to know whether another page follows
+        ProductFacetIndex.Result result = productFacetIndex.query(categories == null ? List.of() : categories,
+                minPrice, maxPrice, textMatches, afterId == null ? 0L : afterId, pageSize + 1);
+        List<Long> ids = result.ids();
+        Long nextCursor = null;
+        if (ids.size() > pageSize) {
+            ids = ids.subList(0, pageSize);
+            nextCursor = ids.get(pageSize - 1);
+        }
+        return new FacetedProductPage(findAllInOrder(ids), nextCursor, result.total(),
+                result.categories(), result.priceBuckets());
+    }
+
+    private int pageSize(Integer size) {
+        return size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamAllOrderById()) {
+            products.forEach(product -> {
+                action.accept(product);
+                // keep the persistence context from growing with the result set
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    // SUPPORTS: a cache hit must not open a transaction (and borrow a connection)
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        ProductSnapshot snapshot = productSnapshotStore.current();
+        Optional<Product> product = snapshot != null
+                ? snapshot.findProduct(id)
+                : productCache.get(id, this::loadFromPrimary);
+        // views rank the product's name and category in suggestions
+        product.ifPresent(found -> productSuggestIndex.viewed(id));
+        return product;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(String category) {
+        ProductSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return snapshot.findByCategory(category);
+        }
         // Now using the repository's custom query method
         return productRepository.findByCategory(category);
     }
 
+    // PUT: last writer wins, a concurrent write is retried on top of the fresh row
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Product updateProduct(Long id, Product productDetails) {
-        return productRepository.findById(id)
-                .map(existingProduct -> {
-                    // Update fields if provided
-                    if (productDetails.getName() != null) {
-                        existingProduct.setName(productDetails.getName());
-                    }
-                    if (productDetails.getDescription() != null) {
-                        existingProduct.setDescription(productDetails.getDescription());
-                    }
-                    if (productDetails.getPrice() != null) {
-                        if (productDetails.getPrice().compareTo(BigDecimal.ZERO) < 0) {
-                            throw new IllegalArgumentException("Price cannot be negative");
-                        }
-                        existingProduct.setPrice(productDetails.getPrice());
-                    }
-                    if (productDetails.getCategory() != null) {
-                        existingProduct.setCategory(productDetails.getCategory());
+        return update(id, productDetails, null);
+    }
+
+    // PATCH: a version in the body must match the current one
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Product patchProduct(Long id, Product changes) {
+        return update(id, changes, changes.getVersion());
+    }
+
+    /**
+     * Applies the non-null fields of changes with one conditional UPDATE ... WHERE
+     * id = ? AND version = ?. The first attempt starts from the cached copy, which
+     * the version check makes safe even when it is stale. On a conflict the row is
+     * re-read and the change applied again, unless the caller pinned a version.
+     * A row that keeps conflicting is updated under a row lock instead.
+     */
+    private Product update(Long id, Product changes, Long expectedVersion) {
+        for (int attempt = 0; attempt <= updateRetries; attempt++) {
+            boolean cached = attempt == 0;
+            // read and write share one transaction, so an attempt holds a single connection
+            Product updated = transactionTemplate.execute(status -> {
+                Product current = cached
+                        ? productCache.get(id, this::loadFromPrimary).orElse(null)
+                        : productRepository.findById(id).orElse(null);
+                if (current == null) {
+                    throw new RuntimeException("Product not found with id: " + id);
+                }
+                // should open-in-view be turned on, a retry would otherwise get this instance back from the shared context
+                entityManager.detach(current);
+                if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                    if (cached) {
+                        return null;
                     }
+                    throw new OptimisticLockingFailureException(
+                            "Product " + id + " is at version " + current.getVersion() + ", not " + expectedVersion);
+                }
+                return updateIfVersion(current, changes, false);
+            });
+            if (updated != null) {
+                return updated;
+            }
+        }
 
-                    return productRepository.save(existingProduct);
-                })
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        // hot row: stop racing the other writers and queue on the row lock
+        Product updated = transactionTemplate.execute(status -> {
+            Product locked = entityManager.find(Product.class, id, LockModeType.PESSIMISTIC_WRITE);
+            if (locked == null) {
+                throw new RuntimeException("Product not found with id: " + id);
+            }
+            entityManager.detach(locked);
+            if (expectedVersion != null && !expectedVersion.equals(locked.getVersion())) {
+                return null;
+            }
+            return updateIfVersion(locked, changes, true);
+        });
+        if (updated == null) {
+            throw new OptimisticLockingFailureException("Product " + id + " is being modified concurrently");
+        }
+        return updated;
+    }
+
+    // Caller holds the transaction; returns null when the row is no longer at current's version.
+    // Only a row read under its lock is known to be current; any other copy may be stale
+    private Product updateIfVersion(Product current, Product changes, boolean locked) {
+        ProductState before = ProductState.of(current);
+        LocalDateTime now = LocalDateTime.now();
+        ProductState after = new ProductState(before.id(),
+                changes.getName() != null ? changes.getName() : before.name(),
+                changes.getDescription() != null ? changes.getDescription() : before.description(),
+                changes.getPrice() != null ? changes.getPrice() : before.price(),
+                changes.getCategory() != null ? changes.getCategory() : before.category(),
+                now,
+                current.getVersion() + 1);
+        String error = validate(after);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        if (Objects.equals(before.name(), after.name())
+                && Objects.equals(before.description(), after.description())
+                && before.price().compareTo(after.price()) == 0
+                && Objects.equals(before.category(), after.category())) {
+            // nothing to write, but only if the database still holds this copy
+            return locked || productBatchRepository.isAtVersion(current.getId(), current.getVersion()) ? current : null;
+        }
+
+        if (!productBatchRepository.updateIfVersion(before, after, current.getVersion())) {
+            return null;
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, after));
+        Product updated = new Product(after.name(), after.description(), after.price(), after.category());
+        updated.setId(after.id());
+        updated.setCreatedAt(current.getCreatedAt());
+        updated.setUpdatedAt(now);
+        updated.setVersion(current.getVersion() + 1);
+        return updated;
     }
 
     @Override
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new RuntimeException("Product not found with id: " + id);
+        Product existingProduct = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        ProductState before = ProductState.of(existingProduct);
+        productRepository.delete(existingProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(before));
+    }
+
+    // Bulk writes run one transaction per chunk so a large import never holds one huge transaction
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchResult createProducts(List<Product> products) {
+        long start = System.nanoTime();
+        BatchItemResult[] results = new BatchItemResult[products.size()];
+
+        for (int from = 0; from < products.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, products.size());
+            List<Integer> positions = new ArrayList<>();
+            List<ProductState> rows = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                ProductState row = ProductState.of(products.get(i));
+                String error = validate(row);
+                if (error != null) {
+                    results[i] = BatchItemResult.failure(i, null, BatchItemResult.Status.INVALID, error);
+                } else {
+                    positions.add(i);
+                    rows.add(row);
+                }
+            }
+            if (rows.isEmpty()) {
+                continue;
+            }
+
+            writeChunk(results, positions, () -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> ids = productBatchRepository.insert(rows, now);
+                for (int k = 0; k < rows.size(); k++) {
+                    ProductState row = rows.get(k);
+                    ProductState created = new ProductState(ids.get(k), row.name(), row.description(),
+                            row.price(), row.category(), now, 0L);
+                    int index = positions.get(k);
+                    results[index] = BatchItemResult.success(index, created.id(), BatchItemResult.Status.CREATED);
+                    eventPublisher.publishEvent(ProductChangedEvent.created(created));
+                }
+            });
+        }
+        return new BatchResult(Arrays.asList(results), System.nanoTime() - start);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchResult updateProducts(List<Product> products) {
+        long start = System.nanoTime();
+        BatchItemResult[] results = new BatchItemResult[products.size()];
+
+        for (int from = 0; from < products.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, products.size());
+            List<Integer> positions = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                if (products.get(i).getId() == null) {
+                    results[i] = BatchItemResult.failure(i, null, BatchItemResult.Status.INVALID, "Id is required");
+                } else {
+                    positions.add(i);
+                }
+            }
+            if (positions.isEmpty()) {
+                continue;
+            }
+
+            writeChunk(results, positions, () -> updateChunk(products, positions, results));
+        }
+        return new BatchResult(Arrays.asList(results), System.nanoTime() - start);
+    }
+
+    /**
+     * Writes one chunk with conditional updates at the version each row was read
+     * at. Rows changed concurrently are read again under a row lock and rewritten,
+     * like a single update falls back to one; a row that still does not match is
+     * reported as a conflict. Items for the same id go in successive rounds so a
+     * later one builds on what the earlier one actually wrote.
+     */
+    private void updateChunk(List<Product> products, List<Integer> positions, BatchItemResult[] results) {
+        List<Integer> pending = positions;
+        boolean locked = false;
+        while (!pending.isEmpty()) {
+            Map<Long, ProductBatchRepository.VersionedState> current = productBatchRepository.findVersionedStates(
+                    pending.stream().map(i -> products.get(i).getId()).distinct().toList(), locked);
+            LocalDateTime now = LocalDateTime.now();
+            Set<Long> inRound = new HashSet<>();
+            List<Integer> rowIndexes = new ArrayList<>();
+            List<ProductState> rows = new ArrayList<>();
+            List<Long> versions = new ArrayList<>();
+            List<ProductState> befores = new ArrayList<>();
+            List<Integer> next = new ArrayList<>();
+            for (int index : pending) {
+                Product details = products.get(index);
+                if (!inRound.add(details.getId())) {
+                    next.add(index);
+                    continue;
+                }
+                ProductBatchRepository.VersionedState stored = current.get(details.getId());
+                if (stored == null) {
+                    results[index] = BatchItemResult.failure(index, details.getId(),
+                            BatchItemResult.Status.NOT_FOUND, "Product not found with id: " + details.getId());
+                    continue;
+                }
+                ProductState before = stored.state();
+                // same partial-update rules as updateProduct: null fields are left unchanged
+                ProductState after = new ProductState(before.id(),
+                        details.getName() != null ? details.getName() : before.name(),
+                        details.getDescription() != null ? details.getDescription() : before.description(),
+                        details.getPrice() != null ? details.getPrice() : before.price(),
+                        details.getCategory() != null ? details.getCategory() : before.category(),
+                        now,
+                        stored.version() + 1);
+                String error = validate(after);
+                if (error != null) {
+                    results[index] = BatchItemResult.failure(index, before.id(), BatchItemResult.Status.INVALID, error);
+                    continue;
+                }
+                rowIndexes.add(index);
+                rows.add(after);
+                versions.add(stored.version());
+                befores.add(before);
+            }
+
+            int[] counts = productBatchRepository.updateIfVersions(rows, versions);
+            boolean conflicts = false;
+            for (int k = 0; k < rows.size(); k++) {
+                int index = rowIndexes.get(k);
+                if (counts[k] == 1) {
+                    eventPublisher.publishEvent(ProductChangedEvent.updated(befores.get(k), rows.get(k)));
+                    results[index] = BatchItemResult.success(index, rows.get(k).id(), BatchItemResult.Status.UPDATED);
+                } else if (locked) {
+                    results[index] = BatchItemResult.failure(index, rows.get(k).id(), BatchItemResult.Status.CONFLICT,
+                            "Product " + rows.get(k).id() + " was modified concurrently");
+                } else {
+                    next.add(index);
+                    conflicts = true;
+                }
+            }
+            locked |= conflicts;
+            next.sort(null);
+            pending = next;
         }
-        productRepository.deleteById(id);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchResult deleteProducts(List<Long> ids) {
+        long start = System.nanoTime();
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+
+        for (int from = 0; from < ids.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, ids.size());
+            List<Integer> positions = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                if (ids.get(i) == null) {
+                    results[i] = BatchItemResult.failure(i, null, BatchItemResult.Status.INVALID, "Id is required");
+                } else {
+                    positions.add(i);
+                }
+            }
+            if (positions.isEmpty()) {
+                continue;
+            }
+
+            writeChunk(results, positions, () -> deleteChunk(ids, positions, results));
+        }
+        return new BatchResult(Arrays.asList(results), System.nanoTime() - start);
+    }
+
+    /**
+     * Deletes one chunk at the version each row was read at, so the DELETED event
+     * and the history row carry the state that was actually removed. A row changed
+     * in between is left in place and reported as a conflict.
+     */
+    private void deleteChunk(List<Long> ids, List<Integer> positions, BatchItemResult[] results) {
+        Map<Long, ProductBatchRepository.VersionedState> existing = new HashMap<>(
+                productBatchRepository.findVersionedStates(positions.stream().map(ids::get).distinct().toList(), false));
+        List<Integer> rowIndexes = new ArrayList<>();
+        List<ProductState> rows = new ArrayList<>();
+        for (int index : positions) {
+            Long id = ids.get(index);
+            ProductBatchRepository.VersionedState stored = existing.remove(id);
+            if (stored == null) {
+                results[index] = BatchItemResult.failure(index, id,
+                        BatchItemResult.Status.NOT_FOUND, "Product not found with id: " + id);
+                continue;
+            }
+            rowIndexes.add(index);
+            rows.add(stored.state());
+        }
+
+        int[] counts = productBatchRepository.deleteIfVersions(rows);
+        for (int k = 0; k < rows.size(); k++) {
+            int index = rowIndexes.get(k);
+            ProductState before = rows.get(k);
+            if (counts[k] == 1) {
+                eventPublisher.publishEvent(ProductChangedEvent.deleted(before));
+                results[index] = BatchItemResult.success(index, before.id(), BatchItemResult.Status.DELETED);
+            } else {
+                results[index] = BatchItemResult.failure(index, before.id(), BatchItemResult.Status.CONFLICT,
+                        "Product " + before.id() + " was modified concurrently");
+            }
+        }
+    }
+
+    // Runs one chunk in its own transaction; if it fails, every item of the chunk is reported as FAILED
+    private void writeChunk(BatchItemResult[] results, List<Integer> positions, Runnable work) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            for (int index : positions) {
+                Long id = results[index] != null ? results[index].getId() : null;
+                results[index] = BatchItemResult.failure(index, id, BatchItemResult.Status.FAILED, message);
+            }
+        }
+    }
+
+    private static String validate(ProductState product) {
+        if (product.name() == null) {
+            return "Name is required";
+        }
+        if (product.price() == null) {
+            return "Price is required";
+        }
+        if (product.price().compareTo(BigDecimal.ZERO) < 0) {
+            return "Price cannot be negative";
+        }
+        return null;
+    }
+
+    // Cache misses always read the primary: a lagging replica could return the row as it was
+    // before the change that just invalidated the entry, and the cache would keep it until expiry
+    private Optional<Product> loadFromPrimary(Long id) {
+        return transactionTemplate.execute(status -> productRepository.findById(id));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean existsById(Long id) {
-        return productRepository.existsById(id);
+        ProductSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return snapshot.find(id) >= 0;
+        }
+        return productCache.contains(id) || productRepository.existsById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long countProducts() {
+        if (inventoryAggregates.isReady()) {
+            return inventoryAggregates.getProductCount();
+        }
         return productRepository.count();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BigDecimal calculateInventoryValue() {
-        return productRepository.findAll().stream()
-                .map(Product::getPrice)
+        if (inventoryAggregates.isReady()) {
+            return inventoryAggregates.getTotalValue();
+        }
+        // aggregates are seeded once the application is ready; until then ask the database
+        return productRepository.sumPrice();
+    }
+
+    @Override
+    public Map<String, Object> getCacheStats() {
+        return productCache.getStats();
+    }
+
+    @Override
+    public Map<String, Object> getCacheRegionStats() {
+        return hibernateCacheRegions.getStats();
+    }
+
+    // History is written behind, so the last second or so of changes may not be visible yet
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductHistory> getProductHistory(Long id, LocalDateTime from, LocalDateTime to, Integer size) {
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return productHistoryRepository.findByProductIdAndChangedAtBetweenOrderByChangedAtDescIdDesc(
+                id, start, end, Limit.of(pageSize(size)));
+    }
+
+    @Override
+    public Map<String, Object> getSnapshotStats() {
+        return productSnapshotStore.getStats();
+    }
+
+    @Override
+    public Map<String, Object> getHistoryStats() {
+        return productHistoryRecorder.getStats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SearchResult<Product> searchProductsByName(String name, Integer size) {
+        int limit = searchSize(size);
+        if (name.isBlank()) {
+            // the index has no terms to match; the snapshot and LIKE fallbacks would match everything
+            return new SearchResult<>(List.of(), 0);
+        }
+        ProductSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            ProductSnapshot.NameMatches matches = snapshot.searchByName(name, limit);
+            List<Product> products = new ArrayList<>();
+            for (int row : matches.rows()) {
+                products.add(snapshot.product(row));
+            }
+            return new SearchResult<>(products, matches.total());
+        }
+        if (!productSearchIndex.isReady()) {
+            // index is built once the application is ready
+            List<Product> products = productRepository.findByNameContainingIgnoreCase(name);
+            return new SearchResult<>(products.subList(0, Math.min(limit, products.size())), products.size());
+        }
+        ProductSearchIndex.Hits hits = productSearchIndex.searchNames(name, limit);
+        return new SearchResult<>(findAllInOrder(hits.ids()), hits.total());
+    }
+
+    private int searchSize(Integer size) {
+        return size == null ? maxSearchResults : Math.max(1, Math.min(size, maxSearchResults));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllProductSummaries(Consumer<ProductSummary> action) {
+        // records, not entities: nothing enters the persistence context
+        try (Stream<ProductSummary> summaries = productRepository.streamSummariesOrderById()) {
+            summaries.forEach(action);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProductSummariesByCategory(String category) {
+        ProductSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return snapshot.findSummariesByCategory(category);
+        }
+        return productRepository.findSummariesByCategory(category);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SearchResult<ProductSummary> searchProductSummariesByName(String name, Integer size) {
+        int limit = searchSize(size);
+        if (name.isBlank()) {
+            return new SearchResult<>(List.of(), 0);
+        }
+        ProductSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            ProductSnapshot.NameMatches matches = snapshot.searchByName(name, limit);
+            List<ProductSummary> summaries = new ArrayList<>();
+            for (int row : matches.rows()) {
+                summaries.add(snapshot.summary(row));
+            }
+            return new SearchResult<>(summaries, matches.total());
+        }
+        if (!productSearchIndex.isReady()) {
+            List<ProductSummary> summaries = productRepository.findByNameContainingIgnoreCase(name).stream()
+                    .map(p -> new ProductSummary(p.getId(), p.getName(), p.getPrice(), p.getCategory()))
+                    .toList();
+            return new SearchResult<>(summaries.subList(0, Math.min(limit, summaries.size())), summaries.size());
+        }
+        ProductSearchIndex.Hits hits = productSearchIndex.searchNames(name, limit);
+        if (hits.ids().isEmpty()) {
+            return new SearchResult<>(List.of(), hits.total());
+        }
+        Map<Long, ProductSummary> summaries = productRepository.findSummariesByIdIn(hits.ids()).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        List<ProductSummary> items = hits.ids().stream()
+                .map(summaries::get)
                 .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .toList();
+        return new SearchResult<>(items, hits.total());
     }
 
     @Override
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String category,
+                                                 Integer size) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+        int limit = pageSize(size);
+        if (productPriceIndex.isReady()) {
+            return findAllInOrder(productPriceIndex.range(category, minPrice, maxPrice, limit));
+        }
+        // the index is built once the application is ready; until then open bounds become the
+        // catalog's min/max, two seeks on the price index, so the range query can still use it
+        if (minPrice == null || maxPrice == null) {
+            PriceRange range = productRepository.priceRange();
+            if (range.getMinPrice() == null) {
+                return List.of();
+            }
+            minPrice = minPrice != null ? minPrice : range.getMinPrice();
+            maxPrice = maxPrice != null ? maxPrice : range.getMaxPrice();
+        }
+        return category == null
+                ? productRepository.findByPriceBetweenOrderByPriceAscIdAsc(minPrice, maxPrice, Limit.of(limit))
+                : productRepository.findByCategoryAndPriceBetweenOrderByPriceAscIdAsc(
+                        category, minPrice, maxPrice, Limit.of(limit));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Product> getMostExpensiveProducts(String category, Integer size) {
+        int limit = pageSize(size);
+        if (productPriceIndex.isReady()) {
+            return findAllInOrder(productPriceIndex.highest(category, limit));
+        }
+        return category == null
+                ? productRepository.findAllByOrderByPriceDescIdDesc(Limit.of(limit))
+                : productRepository.findByCategoryOrderByPriceDescIdDesc(category, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> getCheapestProducts(String category, Integer size) {
+        if (productPriceIndex.isReady()) {
+            return findAllInOrder(productPriceIndex.lowest(category, pageSize(size)));
+        }
+        return getProductsByPriceRange(null, null, category, size);
+    }
+
+    // Memory only once the index is built: no transaction, no connection
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductSuggestion> suggest(String prefix, Integer size) {
+        int limit = size == null ? maxSuggestions : Math.max(1, Math.min(size, maxSuggestions));
+        if (!productSuggestIndex.isReady()) {
+            // built once the application is ready; until then only names starting with the prefix, unranked
+            return suggestNamesFromDatabase(prefix.trim(), limit);
+        }
+        return productSuggestIndex.suggest(prefix, limit);
+    }
+
+    private List<ProductSuggestion> suggestNamesFromDatabase(String prefix, int limit) {
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Long> names = new LinkedHashMap<>();
+        for (Product product : productRepository.findByNameStartingWithOrderByNameAsc(prefix, Limit.of(limit))) {
+            names.merge(product.getName(), 1L, Long::sum);
+        }
+        List<ProductSuggestion> suggestions = new ArrayList<>();
+        names.forEach((name, products) -> suggestions.add(new ProductSuggestion(name, "name", products, products)));
+        return suggestions;
+    }
+
+    @Override
+    public Map<String, Object> getSuggestStats() {
+        return productSuggestIndex.getStats();
+    }
+
+    // Primary key lookups only, returned in the order of the ids
+    private List<Product> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public long getCategoryCount() {
-        return productRepository.findAll().stream()
-                .map(Product::getCategory)
-                .filter(category -> category != null && !category.trim().isEmpty())
-                .distinct()
-                .count();
+        if (inventoryAggregates.isReady()) {
+            return inventoryAggregates.getCategoryCount();
+        }
+        return productRepository.countByCategory().size();
     }
 }
\ No newline at end of file
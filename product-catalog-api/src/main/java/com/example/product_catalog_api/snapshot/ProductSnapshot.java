@@ -0,0 +1,340 @@
+package com.example.product_catalog_api.snapshot;
+
+import com.example.product_catalog_api.aggregate.PriceCents;
+import com.example.product_catalog_api.dto.ProductSummary;
+import com.example.product_catalog_api.entity.Product;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Read-only view of a snapshot file written by {@link ProductSnapshotWriter}. The
+ * file is memory-mapped and every read is an absolute get on the mapping, so any
+ * number of threads can share one instance, and lookups (binary search on the id
+ * column, the category dictionary, a name scan) allocate nothing; only the
+ * products handed back are materialized.
+ *
+ * Layout: a fixed header, a table of section offsets, then one column per field
+ * in id order. Prices are longs in cents, categories are codes into a dictionary
+ * sorted by their UTF-8 bytes, strings are (start, length) pairs into a byte blob
+ * with length -1 for null, timestamps are epoch microseconds (UTC) with
+ * Long.MIN_VALUE for null. For each category the rows are listed by price,
+ * together with count, sum, min and max of the price.
+ */
+public final class ProductSnapshot {
+
+    static final int MAGIC = 0x50435331; // "PCS1"
+    static final int FORMAT_VERSION = 1;
+    static final int PRICE_SCALE = PriceCents.SCALE;
+    static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    // header: magic, format, rows, categories, built at, price sum, min price, max price
+    static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 8 + 8 + 8;
+
+    enum Section {
+        IDS, PRICES, CREATED, UPDATED, VERSIONS, CATEGORIES,
+        NAMES, NAME_BYTES, KEYS, KEY_BYTES, DESCRIPTIONS, DESCRIPTION_BYTES,
+        CATEGORY_NAMES, CATEGORY_NAME_BYTES, CATEGORY_STATS, CATEGORY_ROW_START, CATEGORY_ROWS
+    }
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int categories;
+    private final long builtAt;
+    private final long priceSum;
+    private final long minPrice;
+    private final long maxPrice;
+    private final int[] sections = new int[Section.values().length];
+
+    private ProductSnapshot(Path file, ByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE + sections.length * 4 || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a product snapshot: " + file);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported snapshot format " + buffer.getInt(4) + ": " + file);
+        }
+        this.rows = buffer.getInt(8);
+        this.categories = buffer.getInt(12);
+        this.builtAt = buffer.getLong(16);
+        this.priceSum = buffer.getLong(24);
+        this.minPrice = buffer.getLong(32);
+        this.maxPrice = buffer.getLong(40);
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = buffer.getInt(HEADER_SIZE + i * 4);
+            if (sections[i] < 0 || sections[i] > buffer.capacity()) {
+                throw new IllegalStateException("Corrupt product snapshot: " + file);
+            }
+        }
+    }
+
+    /**
+     * Maps the file read-only. The mapping outlives the channel, and deleting the
+     * file later does not invalidate it.
+     */
+    public static ProductSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            return new ProductSnapshot(file, buffer);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public long byteSize() {
+        return buffer.capacity();
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public int categoryCount() {
+        return categories;
+    }
+
+    // Prices and totals in cents
+    public long priceSum() {
+        return priceSum;
+    }
+
+    public long minPrice() {
+        return minPrice;
+    }
+
+    public long maxPrice() {
+        return maxPrice;
+    }
+
+    public long price(int row) {
+        return longAt(Section.PRICES, row);
+    }
+
+    /**
+     * Row of the product with this id, or -1.
+     */
+    public int find(long id) {
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = longAt(Section.IDS, mid);
+            if (value < id) {
+                low = mid + 1;
+            } else if (value > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public Optional<Product> findProduct(long id) {
+        int row = find(id);
+        return row < 0 ? Optional.empty() : Optional.of(product(row));
+    }
+
+    public List<Product> findByCategory(String category) {
+        int code = categoryCode(category);
+        if (code < 0) {
+            return List.of();
+        }
+        int from = intAt(Section.CATEGORY_ROW_START, code);
+        int to = intAt(Section.CATEGORY_ROW_START, code + 1);
+        List<Product> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(product(intAt(Section.CATEGORY_ROWS, i)));
+        }
+        return result;
+    }
+
+    public List<ProductSummary> findSummariesByCategory(String category) {
+        int code = categoryCode(category);
+        if (code < 0) {
+            return List.of();
+        }
+        int from = intAt(Section.CATEGORY_ROW_START, code);
+        int to = intAt(Section.CATEGORY_ROW_START, code + 1);
+        List<ProductSummary> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(summary(intAt(Section.CATEGORY_ROWS, i)));
+        }
+        return result;
+    }
+
+    /**
+     * The first rows of a name search, and how many rows matched in all.
+     */
+    public record NameMatches(int[] rows, int total) {
+    }
+
+    /**
+     * Rows whose name contains the text, ignoring case, in id order: the same
+     * matches as the database's LIKE fallback, found by scanning the lower-cased
+     * name column byte by byte. Rows past the limit are counted, not kept.
+     */
+    public NameMatches searchByName(String text, int limit) {
+        byte[] needle = text.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        int[] matches = new int[Math.max(0, Math.min(limit, rows))];
+        int found = 0;
+        int base = sections[Section.KEY_BYTES.ordinal()];
+        for (int row = 0; row < rows; row++) {
+            int start = base + intAt(Section.KEYS, row * 2);
+            int length = intAt(Section.KEYS, row * 2 + 1);
+            if (contains(start, length, needle)) {
+                if (found < matches.length) {
+                    matches[found] = row;
+                }
+                found++;
+            }
+        }
+        return new NameMatches(found >= matches.length ? matches : Arrays.copyOf(matches, found), found);
+    }
+
+    public Product product(int row) {
+        Product product = new Product(string(Section.NAMES, Section.NAME_BYTES, row),
+                string(Section.DESCRIPTIONS, Section.DESCRIPTION_BYTES, row),
+                BigDecimal.valueOf(price(row), PRICE_SCALE),
+                category(row));
+        product.setId(longAt(Section.IDS, row));
+        product.setCreatedAt(timestamp(longAt(Section.CREATED, row)));
+        product.setUpdatedAt(timestamp(longAt(Section.UPDATED, row)));
+        product.setVersion(longAt(Section.VERSIONS, row));
+        return product;
+    }
+
+    public ProductSummary summary(int row) {
+        return new ProductSummary(longAt(Section.IDS, row), string(Section.NAMES, Section.NAME_BYTES, row),
+                BigDecimal.valueOf(price(row), PRICE_SCALE), category(row));
+    }
+
+    public String categoryName(int code) {
+        return string(Section.CATEGORY_NAMES, Section.CATEGORY_NAME_BYTES, code);
+    }
+
+    // Per category: count, price sum, min and max price, in dictionary order
+    public long categoryProductCount(int code) {
+        return longAt(Section.CATEGORY_STATS, code * 4);
+    }
+
+    public long categoryPriceSum(int code) {
+        return longAt(Section.CATEGORY_STATS, code * 4 + 1);
+    }
+
+    public long categoryMinPrice(int code) {
+        return longAt(Section.CATEGORY_STATS, code * 4 + 2);
+    }
+
+    public long categoryMaxPrice(int code) {
+        return longAt(Section.CATEGORY_STATS, code * 4 + 3);
+    }
+
+    private String category(int row) {
+        int code = intAt(Section.CATEGORIES, row);
+        return code < 0 ? null : categoryName(code);
+    }
+
+    // Binary search of the dictionary on UTF-8 bytes, which is the order it was written in
+    private int categoryCode(String category) {
+        if (category == null) {
+            return -1;
+        }
+        byte[] key = category.getBytes(StandardCharsets.UTF_8);
+        int base = sections[Section.CATEGORY_NAME_BYTES.ordinal()];
+        int low = 0;
+        int high = categories - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(base + intAt(Section.CATEGORY_NAMES, mid * 2),
+                    intAt(Section.CATEGORY_NAMES, mid * 2 + 1), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int start, int length, byte[] key) {
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(start + i), key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private boolean contains(int start, int length, byte[] needle) {
+        if (needle.length == 0) {
+            return true;
+        }
+        byte first = needle[0];
+        for (int i = 0; i <= length - needle.length; i++) {
+            if (buffer.get(start + i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < needle.length && buffer.get(start + i + j) == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String string(Section offsets, Section bytes, int index) {
+        int length = intAt(offsets, index * 2 + 1);
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(sections[bytes.ordinal()] + intAt(offsets, index * 2), value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private long longAt(Section section, int index) {
+        return buffer.getLong(sections[section.ordinal()] + index * 8);
+    }
+
+    private int intAt(Section section, int index) {
+        return buffer.getInt(sections[section.ordinal()] + index * 4);
+    }
+
+    private static LocalDateTime timestamp(long micros) {
+        if (micros == NULL_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.product_catalog_api.snapshot;
+
+import com.example.product_catalog_api.cache.CatalogVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Snapshot mode for read-mostly nodes (catalog.snapshot.enabled). Every
+ * catalog.snapshot.refresh-interval the whole catalog is read with one streaming
+ * query and written to a new snapshot file beside the current one; the file is
+ * renamed into place, mapped, and published through a single volatile write, so
+ * readers see either the old snapshot or the new one, never a mix. The previous
+ * file is deleted right away: its mapping stays valid for readers still using it
+ * and is released once they drop it.
+ *
+ * Reads served from the snapshot are as old as the last refresh, including
+ * writes made through this node. Publishing a snapshot bumps the
+ * {@link CatalogVersion}, since the ETags of collection responses would
+ * otherwise still match the data they were computed for before the swap.
+ */
+@Component
+public class ProductSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSnapshotStore.class);
+
+    private static final String SNAPSHOT_SQL =
+            "SELECT id, name, description, price, category, created_at, updated_at, version FROM products ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final Path directory;
+
+    private volatile ProductSnapshot current;
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile long lastBuildMillis;
+
+    public ProductSnapshotStore(DataSource dataSource,
+                                CatalogVersion catalogVersion,
+                                @Value("${catalog.snapshot.enabled:false}") boolean enabled,
+                                @Value("${catalog.snapshot.directory:${java.io.tmpdir}/product-catalog-snapshot}") Path directory,
+                                @Value("${catalog.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.directory = directory;
+    }
+
+    /**
+     * The snapshot to serve reads from, or null when snapshot mode is off or the
+     * first snapshot is not built yet.
+     */
+    public ProductSnapshot current() {
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long builtAt = System.currentTimeMillis();
+        Path target = directory.resolve("products-" + builtAt + ".snapshot");
+        Path temp = directory.resolve("products-" + builtAt + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            if (current == null) {
+                deleteLeftovers();
+            }
+            ProductSnapshotWriter writer = new ProductSnapshotWriter();
+            jdbcTemplate.query(SNAPSHOT_SQL, rs -> {
+                writer.add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4), rs.getString(5),
+                        rs.getObject(6, LocalDateTime.class), rs.getObject(7, LocalDateTime.class), rs.getLong(8));
+            });
+            writer.write(temp, builtAt);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+            ProductSnapshot previous = current;
+            current = ProductSnapshot.open(target);
+            catalogVersion.changed();
+            if (previous != null) {
+                Files.deleteIfExists(previous.getFile());
+            }
+            lastBuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            refreshes.increment();
+            log.debug("Product snapshot refreshed: {} products, {} bytes in {} ms",
+                    writer.size(), current.byteSize(), lastBuildMillis);
+        } catch (IOException | RuntimeException e) {
+            // keep serving the previous snapshot
+            failures.increment();
+            log.error("Product snapshot refresh failed: {}", e.toString());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // removed with the leftovers on the next start
+            }
+        }
+    }
+
+    private void deleteLeftovers() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "products-*.{snapshot,tmp}")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        ProductSnapshot snapshot = current;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", snapshot != null);
+        if (snapshot != null) {
+            result.put("file", snapshot.getFile().toString());
+            result.put("products", snapshot.size());
+            result.put("categories", snapshot.categoryCount());
+            result.put("bytes", snapshot.byteSize());
+            result.put("ageMillis", System.currentTimeMillis() - snapshot.getBuiltAt());
+        }
+        result.put("lastBuildMillis", lastBuildMillis);
+        result.put("refreshes", refreshes.sum());
+        result.put("failures", failures.sum());
+        return result;
+    }
+}
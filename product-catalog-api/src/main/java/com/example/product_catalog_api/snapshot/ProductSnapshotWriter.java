@@ -0,0 +1,256 @@
+package com.example.product_catalog_api.snapshot;
+
+import com.example.product_catalog_api.aggregate.PriceCents;
+import com.example.product_catalog_api.snapshot.ProductSnapshot.Section;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects products in ascending id order and writes them in the
+ * {@link ProductSnapshot} layout. Columns are held in primitive arrays and byte
+ * blobs until {@link #write}, so building takes about as much heap as the file.
+ */
+class ProductSnapshotWriter {
+
+    private int rows;
+    private long[] ids = new long[1024];
+    private long[] prices = new long[1024];
+    private long[] created = new long[1024];
+    private long[] updated = new long[1024];
+    private long[] versions = new long[1024];
+    private int[] categories = new int[1024];
+    private final Blob names = new Blob();
+    private final Blob keys = new Blob();
+    private final Blob descriptions = new Blob();
+    // codes in order of first appearance; renumbered in dictionary order on write
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+
+    // Strings as (start, length) pairs into one byte array, length -1 for null
+    private static final class Blob {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int[] offsets = new int[2048];
+
+        void add(int index, String value) {
+            if (offsets.length < index * 2 + 2) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[index * 2] = bytes.size();
+            if (value == null) {
+                offsets[index * 2 + 1] = -1;
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            bytes.writeBytes(utf8);
+            offsets[index * 2 + 1] = utf8.length;
+        }
+    }
+
+    int size() {
+        return rows;
+    }
+
+    void add(long id, String name, String description, BigDecimal price, String category,
+             LocalDateTime createdAt, LocalDateTime updatedAt, long version) {
+        if (rows > 0 && id <= ids[rows - 1]) {
+            throw new IllegalArgumentException("Products must be added in ascending id order");
+        }
+        if (rows == ids.length) {
+            int capacity = rows * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            created = Arrays.copyOf(created, capacity);
+            updated = Arrays.copyOf(updated, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        ids[rows] = id;
+        // exact: the column has two decimals; a price that does not fit a long fails the build
+        prices[rows] = PriceCents.of(price);
+        created[rows] = micros(createdAt);
+        updated[rows] = micros(updatedAt);
+        versions[rows] = version;
+        // a blank category is no category, as for the running totals and the database counts
+        categories[rows] = category == null || category.trim().isEmpty() ? -1 : categoryCodes.computeIfAbsent(category, c -> {
+            categoryNames.add(c);
+            return categoryNames.size() - 1;
+        });
+        names.add(rows, name);
+        keys.add(rows, name == null ? null : name.toLowerCase(Locale.ROOT));
+        descriptions.add(rows, description);
+        rows++;
+    }
+
+    void write(Path file, long builtAt) throws IOException {
+        // dictionary sorted by UTF-8 bytes, the order ProductSnapshot searches it in
+        int categoryCount = categoryNames.size();
+        byte[][] categoryBytes = new byte[categoryCount][];
+        Integer[] order = new Integer[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            categoryBytes[i] = categoryNames.get(i).getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(categoryBytes[a], categoryBytes[b]));
+        int[] codeOf = new int[categoryCount];
+        Blob dictionary = new Blob();
+        for (int code = 0; code < categoryCount; code++) {
+            codeOf[order[code]] = code;
+            dictionary.add(code, categoryNames.get(order[code]));
+        }
+
+        int[] codes = new int[rows];
+        int[] rowStart = new int[categoryCount + 1];
+        long[] stats = new long[categoryCount * 4];
+        for (int code = 0; code < categoryCount; code++) {
+            stats[code * 4 + 2] = Long.MAX_VALUE;
+            stats[code * 4 + 3] = Long.MIN_VALUE;
+        }
+        long priceSum = PriceCents.sumExact(prices, 0, rows);
+        long minPrice = rows == 0 ? 0 : Long.MAX_VALUE;
+        long maxPrice = rows == 0 ? 0 : Long.MIN_VALUE;
+        for (int row = 0; row < rows; row++) {
+            long price = prices[row];
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+            codes[row] = categories[row] < 0 ? -1 : codeOf[categories[row]];
+            if (codes[row] >= 0) {
+                int code = codes[row];
+                rowStart[code + 1]++;
+                stats[code * 4]++;
+                stats[code * 4 + 1] = Math.addExact(stats[code * 4 + 1], price);
+                stats[code * 4 + 2] = Math.min(stats[code * 4 + 2], price);
+                stats[code * 4 + 3] = Math.max(stats[code * 4 + 3], price);
+            }
+        }
+        for (int code = 0; code < categoryCount; code++) {
+            rowStart[code + 1] += rowStart[code];
+        }
+        // rows grouped by category, by price within each and by id for equal prices: the order
+        // the database returns them in when it reads idx_products_category_price
+        Integer[] grouped = new Integer[rowStart[categoryCount]];
+        int[] next = Arrays.copyOf(rowStart, categoryCount);
+        for (int row = 0; row < rows; row++) {
+            if (codes[row] >= 0) {
+                grouped[next[codes[row]]++] = row;
+            }
+        }
+        int[] categoryRows = new int[grouped.length];
+        for (int code = 0; code < categoryCount; code++) {
+            // stable, so rows of equal price stay in id order
+            Arrays.sort(grouped, rowStart[code], rowStart[code + 1], (a, b) -> Long.compare(prices[a], prices[b]));
+        }
+        for (int i = 0; i < grouped.length; i++) {
+            categoryRows[i] = grouped[i];
+        }
+
+        byte[] nameBytes = names.bytes.toByteArray();
+        byte[] keyBytes = keys.bytes.toByteArray();
+        byte[] descriptionBytes = descriptions.bytes.toByteArray();
+        byte[] categoryNameBytes = dictionary.bytes.toByteArray();
+
+        long[] sizes = new long[Section.values().length];
+        sizes[Section.IDS.ordinal()] = rows * 8L;
+        sizes[Section.PRICES.ordinal()] = rows * 8L;
+        sizes[Section.CREATED.ordinal()] = rows * 8L;
+        sizes[Section.UPDATED.ordinal()] = rows * 8L;
+        sizes[Section.VERSIONS.ordinal()] = rows * 8L;
+        sizes[Section.CATEGORIES.ordinal()] = rows * 4L;
+        sizes[Section.NAMES.ordinal()] = rows * 8L;
+        sizes[Section.NAME_BYTES.ordinal()] = nameBytes.length;
+        sizes[Section.KEYS.ordinal()] = rows * 8L;
+        sizes[Section.KEY_BYTES.ordinal()] = keyBytes.length;
+        sizes[Section.DESCRIPTIONS.ordinal()] = rows * 8L;
+        sizes[Section.DESCRIPTION_BYTES.ordinal()] = descriptionBytes.length;
+        sizes[Section.CATEGORY_NAMES.ordinal()] = categoryCount * 8L;
+        sizes[Section.CATEGORY_NAME_BYTES.ordinal()] = categoryNameBytes.length;
+        sizes[Section.CATEGORY_STATS.ordinal()] = categoryCount * 32L;
+        sizes[Section.CATEGORY_ROW_START.ordinal()] = (categoryCount + 1) * 4L;
+        sizes[Section.CATEGORY_ROWS.ordinal()] = categoryRows.length * 4L;
+
+        // sections start 8-byte aligned
+        int[] offsets = new int[sizes.length];
+        long position = align(ProductSnapshot.HEADER_SIZE + sizes.length * 4L);
+        for (int i = 0; i < sizes.length; i++) {
+            offsets[i] = (int) position;
+            position = align(position + sizes[i]);
+            if (position > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Product snapshot would exceed 2 GB");
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, position);
+            ByteBuffer out = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(ProductSnapshot.MAGIC)
+                    .putInt(ProductSnapshot.FORMAT_VERSION)
+                    .putInt(rows)
+                    .putInt(categoryCount)
+                    .putLong(builtAt)
+                    .putLong(priceSum)
+                    .putLong(minPrice)
+                    .putLong(maxPrice);
+            for (int offset : offsets) {
+                out.putInt(offset);
+            }
+            putLongs(out, offsets[Section.IDS.ordinal()], ids, rows);
+            putLongs(out, offsets[Section.PRICES.ordinal()], prices, rows);
+            putLongs(out, offsets[Section.CREATED.ordinal()], created, rows);
+            putLongs(out, offsets[Section.UPDATED.ordinal()], updated, rows);
+            putLongs(out, offsets[Section.VERSIONS.ordinal()], versions, rows);
+            putInts(out, offsets[Section.CATEGORIES.ordinal()], codes, rows);
+            putInts(out, offsets[Section.NAMES.ordinal()], names.offsets, rows * 2);
+            out.put(offsets[Section.NAME_BYTES.ordinal()], nameBytes);
+            putInts(out, offsets[Section.KEYS.ordinal()], keys.offsets, rows * 2);
+            out.put(offsets[Section.KEY_BYTES.ordinal()], keyBytes);
+            putInts(out, offsets[Section.DESCRIPTIONS.ordinal()], descriptions.offsets, rows * 2);
+            out.put(offsets[Section.DESCRIPTION_BYTES.ordinal()], descriptionBytes);
+            putInts(out, offsets[Section.CATEGORY_NAMES.ordinal()], dictionary.offsets, categoryCount * 2);
+            out.put(offsets[Section.CATEGORY_NAME_BYTES.ordinal()], categoryNameBytes);
+            putLongs(out, offsets[Section.CATEGORY_STATS.ordinal()], stats, stats.length);
+            putInts(out, offsets[Section.CATEGORY_ROW_START.ordinal()], rowStart, rowStart.length);
+            putInts(out, offsets[Section.CATEGORY_ROWS.ordinal()], categoryRows, categoryRows.length);
+            mapped.force();
+        }
+    }
+
+    private static void putLongs(ByteBuffer out, int offset, long[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            out.putLong(offset + i * 8, values[i]);
+        }
+    }
+
+    private static void putInts(ByteBuffer out, int offset, int[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            out.putInt(offset + i * 4, values[i]);
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static long micros(LocalDateTime value) {
+        if (value == null) {
+            return ProductSnapshot.NULL_TIMESTAMP;
+        }
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1000;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.product_catalog_api.stats;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Everything the dashboard shows about the catalog, in one response.
+ * categories and histogram are only present when requested.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogStatistics {
+
+    public record CategoryStats(String category,
+                                long count,
+                                BigDecimal totalValue,
+                                BigDecimal minPrice,
+                                BigDecimal maxPrice,
+                                BigDecimal avgPrice) {
+    }
+
+    public record HistogramBucket(BigDecimal from, BigDecimal to, long count) {
+    }
+
+    public record Histogram(BigDecimal bucketWidth, List<HistogramBucket> buckets) {
+    }
+
+    private final long count;
+    private final BigDecimal inventoryValue;
+    private final long categoryCount;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final BigDecimal avgPrice;
+    private List<CategoryStats> categories;
+    private Histogram histogram;
+
+    public CatalogStatistics(long count, BigDecimal inventoryValue, long categoryCount,
+                             BigDecimal minPrice, BigDecimal maxPrice, BigDecimal avgPrice) {
+        this.count = count;
+        this.inventoryValue = inventoryValue;
+        this.categoryCount = categoryCount;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.avgPrice = avgPrice;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getInventoryValue() {
+        return inventoryValue;
+    }
+
+    public long getCategoryCount() {
+        return categoryCount;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public BigDecimal getAvgPrice() {
+        return avgPrice;
+    }
+
+    public List<CategoryStats> getCategories() {
+        return categories;
+    }
+    public void setCategories(List<CategoryStats> categories) {
+        this.categories = categories;
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+    public void setHistogram(Histogram histogram) {
+        this.histogram = histogram;
+    }
+}
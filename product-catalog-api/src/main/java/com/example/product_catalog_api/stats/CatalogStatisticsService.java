@@ -0,0 +1,179 @@
+package com.example.product_catalog_api.stats;
+
+import com.example.product_catalog_api.aggregate.InventoryAggregates;
+import com.example.product_catalog_api.aggregate.PriceCents;
+import com.example.product_catalog_api.repository.CatalogTotals;
+import com.example.product_catalog_api.repository.PriceBucket;
+import com.example.product_catalog_api.repository.PriceRange;
+import com.example.product_catalog_api.repository.ProductRepository;
+import com.example.product_catalog_api.snapshot.ProductSnapshot;
+import com.example.product_catalog_api.snapshot.ProductSnapshotStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Catalog statistics from database aggregates and the running inventory totals;
+ * no product entity is ever loaded. In snapshot mode they come from the mapped
+ * snapshot instead.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CatalogStatisticsService {
+
+    private static final int PRICE_SCALE = PriceCents.SCALE;
+
+    // largest categories first, ties by name; sorted here so the database collation and the
+    // snapshot dictionary order cannot make the two paths disagree
+    private static final Comparator<CatalogStatistics.CategoryStats> CATEGORY_ORDER =
+            Comparator.comparingLong(CatalogStatistics.CategoryStats::count).reversed()
+                    .thenComparing(CatalogStatistics.CategoryStats::category);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryAggregates inventoryAggregates;
+
+    @Autowired
+    private ProductSnapshotStore productSnapshotStore;
+
+    @Value("${catalog.stats.histogram-buckets:10}")
+    private int defaultHistogramBuckets;
+
+    @Value("${catalog.stats.max-histogram-buckets:1000}")
+    private int maxHistogramBuckets;
+
+    public CatalogStatistics getStatistics(boolean includeCategories, boolean includeHistogram, BigDecimal bucketWidth) {
+        ProductSnapshot snapshot = productSnapshotStore.current();
+        if (snapshot != null) {
+            return snapshotStatistics(snapshot, includeCategories, includeHistogram, bucketWidth);
+        }
+        CatalogStatistics statistics = totals();
+        if (includeCategories) {
+            statistics.setCategories(productRepository.categoryStatistics().stream()
+                    .map(row -> new CatalogStatistics.CategoryStats(
+                            row.getCategory(),
+                            row.getCount(),
+                            row.getTotalValue(),
+                            row.getMinPrice(),
+                            row.getMaxPrice(),
+                            average(row.getAvgPrice())))
+                    .sorted(CATEGORY_ORDER)
+                    .toList());
+        }
+        if (includeHistogram) {
+            statistics.setHistogram(histogram(bucketWidth, statistics.getMaxPrice()));
+        }
+        return statistics;
+    }
+
+    // Count, value and category count come from the running totals once they are seeded;
+    // min/max is a single lookup at each end of the price index
+    private CatalogStatistics totals() {
+        if (inventoryAggregates.isReady()) {
+            long count = inventoryAggregates.getProductCount();
+            long valueCents = inventoryAggregates.getTotalCents();
+            PriceRange range = productRepository.priceRange();
+            return new CatalogStatistics(count, cents(valueCents), inventoryAggregates.getCategoryCount(),
+                    range.getMinPrice(), range.getMaxPrice(), average(valueCents, count));
+        }
+        CatalogTotals totals = productRepository.catalogTotals();
+        return new CatalogStatistics(totals.getCount(), totals.getTotalValue(), totals.getCategoryCount(),
+                totals.getMinPrice(), totals.getMaxPrice(), average(totals.getAvgPrice()));
+    }
+
+    private CatalogStatistics.Histogram histogram(BigDecimal bucketWidth, BigDecimal maxPrice) {
+        BigDecimal width = bucketWidth(bucketWidth, maxPrice);
+        List<CatalogStatistics.HistogramBucket> buckets = new ArrayList<>();
+        for (PriceBucket row : productRepository.priceHistogram(width)) {
+            BigDecimal from = new BigDecimal(row.getBucket().toString()).multiply(width);
+            buckets.add(new CatalogStatistics.HistogramBucket(from, from.add(width), row.getCount()));
+        }
+        return new CatalogStatistics.Histogram(width, buckets);
+    }
+
+    // A requested width too narrow for the price range is widened to the narrowest whole-cent
+    // width that fits it into maxHistogramBuckets; the histogram reports the width it used
+    private BigDecimal bucketWidth(BigDecimal bucketWidth, BigDecimal maxPrice) {
+        BigDecimal max = maxPrice == null ? BigDecimal.ONE : maxPrice;
+        if (bucketWidth != null && bucketWidth.signum() > 0) {
+            if (maxHistogramBuckets < 2 || max.signum() <= 0) {
+                return bucketWidth;
+            }
+            BigDecimal narrowest = max.divide(BigDecimal.valueOf(maxHistogramBuckets - 1), PRICE_SCALE,
+                    RoundingMode.CEILING);
+            return bucketWidth.max(narrowest);
+        }
+        // whole-number width that spreads the current price range over the default bucket count
+        return max.divide(BigDecimal.valueOf(defaultHistogramBuckets), 0, RoundingMode.CEILING).max(BigDecimal.ONE);
+    }
+
+    // Same figures from the mapped snapshot: totals and per-category figures were computed when
+    // it was written, a histogram is one pass over the price column in cents
+    private CatalogStatistics snapshotStatistics(ProductSnapshot snapshot, boolean includeCategories,
+                                                 boolean includeHistogram, BigDecimal bucketWidth) {
+        long count = snapshot.size();
+        BigDecimal maxPrice = count == 0 ? null : cents(snapshot.maxPrice());
+        CatalogStatistics statistics = new CatalogStatistics(count, cents(snapshot.priceSum()), snapshot.categoryCount(),
+                count == 0 ? null : cents(snapshot.minPrice()), maxPrice, average(snapshot.priceSum(), count));
+        if (includeCategories) {
+            List<CatalogStatistics.CategoryStats> categories = new ArrayList<>(snapshot.categoryCount());
+            for (int code = 0; code < snapshot.categoryCount(); code++) {
+                long categoryCount = snapshot.categoryProductCount(code);
+                categories.add(new CatalogStatistics.CategoryStats(snapshot.categoryName(code), categoryCount,
+                        cents(snapshot.categoryPriceSum(code)), cents(snapshot.categoryMinPrice(code)),
+                        cents(snapshot.categoryMaxPrice(code)), average(snapshot.categoryPriceSum(code), categoryCount)));
+            }
+            categories.sort(CATEGORY_ORDER);
+            statistics.setCategories(categories);
+        }
+        if (includeHistogram) {
+            BigDecimal width = bucketWidth(bucketWidth, maxPrice);
+            CatalogStatistics.Histogram histogram = snapshotHistogram(snapshot, width);
+            statistics.setHistogram(histogram != null ? histogram : histogram(width, maxPrice));
+        }
+        return statistics;
+    }
+
+    // null when the width is finer than a cent
+    private static CatalogStatistics.Histogram snapshotHistogram(ProductSnapshot snapshot, BigDecimal width) {
+        BigDecimal scaledWidth = width.movePointRight(PRICE_SCALE);
+        if (scaledWidth.stripTrailingZeros().scale() > 0) {
+            return null;
+        }
+        long widthCents = scaledWidth.longValueExact();
+        long bucketCount = snapshot.size() == 0 ? 0 : snapshot.maxPrice() / widthCents + 1;
+        long[] counts = new long[(int) bucketCount];
+        for (int row = 0; row < snapshot.size(); row++) {
+            counts[(int) (snapshot.price(row) / widthCents)]++;
+        }
+        List<CatalogStatistics.HistogramBucket> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (counts[bucket] > 0) {
+                BigDecimal from = width.multiply(BigDecimal.valueOf(bucket));
+                buckets.add(new CatalogStatistics.HistogramBucket(from, from.add(width), counts[bucket]));
+            }
+        }
+        return new CatalogStatistics.Histogram(width, buckets);
+    }
+
+    private static BigDecimal cents(long value) {
+        return PriceCents.toPrice(value);
+    }
+
+    private static BigDecimal average(long sumCents, long count) {
+        return PriceCents.average(sumCents, count);
+    }
+
+    private static BigDecimal average(Double avg) {
+        return avg == null ? null : BigDecimal.valueOf(avg).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,941 @@
+package com.example.product_catalog_api.suggest;
+
+import com.example.product_catalog_api.dto.ProductSuggestion;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.event.ProductVersions;
+import com.example.product_catalog_api.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead completions over product names and categories.
+ *
+ * A radix trie holds every word start of every name and category, lower-cased,
+ * so "mou" finds "Wireless Mouse". Edges carry whole strings and single-child
+ * chains are merged, so there is one node per branching point, and every node
+ * knows the best weight below it: top-k is a best-first walk that only opens
+ * subtrees which can still beat what was found. A completion's weight is the
+ * number of products carrying it plus how often they were viewed; views are
+ * counted without locking and folded into the trie every few seconds.
+ *
+ * Memory is kept flat: edge labels are ranges of one shared char buffer rather
+ * than a String per node, there is one completion per normalized text whether
+ * it names products, categories or both, and a product maps to its completions
+ * through two primitive arrays. The heap estimate is maintained as the trie
+ * changes, so reading it costs nothing.
+ */
+@Component
+public class ProductSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    // long names would otherwise add a key per word
+    private static final int MAX_WORD_STARTS = 8;
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    // header, five references or ints and the best weight; header, id, text, two counts and views
+    private static final long NODE_BYTES = align(12 + 4 * 5 + 8);
+    private static final long TERM_BYTES = align(12 + 4 * 4 + 8);
+    // hash map node and table slot per completion
+    private static final long TERM_ENTRY_BYTES = 32 + 8;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final class Term {
+        final int id;
+        final String text;
+        // products named this and products in this category
+        int names;
+        int categories;
+        long views;
+
+        Term(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+
+        // products carrying the text either way; the completion leaves the trie at 0
+        int listed() {
+            return names + categories;
+        }
+
+        long weight() {
+            return listed() + views;
+        }
+
+        // a text that is some product's category is offered as that category
+        String type() {
+            return categories > 0 ? "category" : "name";
+        }
+
+        int products() {
+            return categories > 0 ? categories : names;
+        }
+
+        // the normalized text's word starts, the whole text first; derived on each change
+        // rather than kept, which would double the memory of a completion
+        String[] keys() {
+            return wordStarts(normalize(text));
+        }
+    }
+
+    private static final class Node {
+        // the label is chars[start, start + length) of the shared buffer
+        int start;
+        int length;
+        // children sorted by the first char of their label
+        char[] firsts = NO_CHARS;
+        Node[] children = NO_NODES;
+        // completions whose key ends here, null when none
+        Term[] terms;
+        // best weight in this subtree
+        long best;
+
+        Node(int start, int length) {
+            this.start = start;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Product id to its name and category completions, packed as (name id + 1) in
+     * the high and (category id + 1) in the low half of a long; 0 means none.
+     * Open addressing with linear probing over two arrays, about 16 bytes a
+     * product instead of a map entry, a boxed id and a pair object.
+     */
+    private static final class ProductTerms {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private long[] values;
+        private int size;
+
+        ProductTerms() {
+            clear();
+        }
+
+        void clear() {
+            keys = new long[16];
+            values = new long[16];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        long get(long id) {
+            int mask = keys.length - 1;
+            for (int i = slot(id, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == id) {
+                    return values[i];
+                }
+            }
+            return 0;
+        }
+
+        // returns the previous value, 0 when there was none
+        long put(long id, long value) {
+            if ((size + 1) * 4L > keys.length * 3L) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = slot(id, mask);
+            for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == id) {
+                    long previous = values[i];
+                    values[i] = value;
+                    return previous;
+                }
+            }
+            keys[i] = id;
+            values[i] = value;
+            size++;
+            return 0;
+        }
+
+        long remove(long id) {
+            int mask = keys.length - 1;
+            int i = slot(id, mask);
+            while (keys[i] != id) {
+                if (keys[i] == EMPTY) {
+                    return 0;
+                }
+                i = (i + 1) & mask;
+            }
+            long previous = values[i];
+            // shift back the entries that probed past the freed slot, so no lookup stops short
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                if (((j - slot(keys[j], mask)) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+            values[gap] = 0;
+            size--;
+            return previous;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[capacity];
+            values = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            int mask = capacity - 1;
+            for (int k = 0; k < oldKeys.length; k++) {
+                if (oldKeys[k] != EMPTY) {
+                    int i = slot(oldKeys[k], mask);
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[k];
+                    values[i] = oldValues[k];
+                }
+            }
+        }
+
+        private static int slot(long id, int mask) {
+            long mixed = id * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32)) & mask;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // all guarded by lock
+    private char[] chars = new char[64];
+    private int charsUsed;
+    private Node root = new Node(0, 0);
+    private final Map<String, Term> terms = new HashMap<>();
+    private Term[] termsById = new Term[16];
+    private int[] freeTermIds = new int[16];
+    private int freeTermCount;
+    private int nextTermId;
+    private final ProductTerms products = new ProductTerms();
+    private final ProductVersions versions = new ProductVersions();
+    private Set<Long> changedDuringBuild;
+
+    // maintained as the trie changes, guarded by lock
+    private long nodes = 1;
+    private long labelChars;
+    private long nodeBytes = NODE_BYTES;
+    private long termBytes;
+    private int nameTerms;
+    private int categoryTerms;
+
+    private volatile long estimatedBytes;
+
+    // views since the last fold, by product id
+    private final Map<Long, Long> pendingViews = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("catalog.suggest.memory", this, ProductSuggestIndex::estimatedBytes)
+                .description("Estimated heap held by the typeahead trie and its completions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Loads every product page by page so only one page is held at a time.
+     * Changes committed while the build runs win over the (older) page contents.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            clearTrie();
+            versions.clear();
+            changedDuringBuild = new HashSet<>();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long cursor = 0L;
+        List<Product> page;
+        do {
+            page = productRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(BUILD_PAGE_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Product product : page) {
+                    if (!changedDuringBuild.contains(product.getId())) {
+                        ProductState state = ProductState.of(product);
+                        versions.loaded(state);
+                        put(state);
+                    }
+                }
+                changed();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == BUILD_PAGE_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+            ready = true;
+            log.info("Product suggest index built: {} names, {} categories, {} KB in {} ms",
+                    nameTerms, categoryTerms, estimatedBytes / 1024, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller holds the write lock
+    private void clearTrie() {
+        chars = new char[64];
+        charsUsed = 0;
+        root = new Node(0, 0);
+        terms.clear();
+        termsById = new Term[16];
+        freeTermIds = new int[16];
+        freeTermCount = 0;
+        nextTermId = 0;
+        products.clear();
+        nodes = 1;
+        labelChars = 0;
+        nodeBytes = NODE_BYTES;
+        termBytes = 0;
+        nameTerms = 0;
+        categoryTerms = 0;
+        changed();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!versions.accept(event)) {
+                return;
+            }
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.getProductId());
+            }
+            if (event.getAfter() != null) {
+                put(event.getAfter());
+            } else {
+                long previous = products.remove(event.getProductId());
+                unlink(nameOf(previous), true);
+                unlink(categoryOf(previous), false);
+            }
+            changed();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts a view of the product towards its name and category. Cheap enough
+     * for every read; the trie only sees the counts at the next {@link #applyViews}.
+     */
+    public void viewed(Long id) {
+        pendingViews.merge(id, 1L, Long::sum);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.suggest.popularity-interval:PT5S}")
+    public void applyViews() {
+        if (pendingViews.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Set<Term> changed = new LinkedHashSet<>();
+            for (Long id : pendingViews.keySet()) {
+                long views = pendingViews.remove(id);
+                long listed = products.get(id);
+                Term name = nameOf(listed);
+                Term category = categoryOf(listed);
+                if (name != null) {
+                    name.views += views;
+                    changed.add(name);
+                }
+                // a product named after its own category counts once
+                if (category != null && category != name) {
+                    category.views += views;
+                    changed.add(category);
+                }
+            }
+            for (Term term : changed) {
+                for (String key : term.keys()) {
+                    refresh(key);
+                }
+            }
+            changed();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} names and categories with a word starting with the
+     * prefix, heaviest first; equal weights come out shortest key first.
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String key = normalizePrefix(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node start = find(key);
+            if (start == null) {
+                return List.of();
+            }
+            return bestFirst(start, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("products", products.size());
+            stats.put("names", nameTerms);
+            stats.put("categories", categoryTerms);
+            stats.put("nodes", nodes);
+            stats.put("labelChars", labelChars);
+            stats.put("labelBufferChars", chars.length);
+            stats.put("estimatedBytes", estimatedBytes);
+            stats.put("pendingViews", pendingViews.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Heap held by the trie, the completions and the product map, from the object
+     * layouts of a 64-bit JVM with compressed references; Latin-1 strings are one
+     * byte per char, the label buffer two. Kept up to date by every change.
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    // caller holds the write lock; after each change, so the labels never take more than twice their size
+    private void changed() {
+        if (charsUsed > 2L * labelChars + 1024) {
+            compactLabels();
+        }
+        estimatedBytes = nodeBytes + termBytes + terms.size() * TERM_ENTRY_BYTES
+                + align(16 + 2L * chars.length)
+                + align(16 + 4L * termsById.length) + align(16 + 4L * freeTermIds.length)
+                + 2 * align(16 + 8L * products.capacity()) + versions.estimatedBytes();
+    }
+
+    private void compactLabels() {
+        char[] compacted = new char[(int) Math.max(64, labelChars + labelChars / 4)];
+        charsUsed = copyLabels(root, compacted, 0);
+        chars = compacted;
+    }
+
+    private int copyLabels(Node node, char[] target, int used) {
+        System.arraycopy(chars, node.start, target, used, node.length);
+        node.start = used;
+        used += node.length;
+        for (Node child : node.children) {
+            used = copyLabels(child, target, used);
+        }
+        return used;
+    }
+
+    // The node whose subtree holds every key starting with the prefix; the prefix may end inside an edge
+    private Node find(String key) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            Node child = child(node, key.charAt(position));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child, key, position);
+            if (position + common == key.length()) {
+                return child;
+            }
+            if (common < child.length) {
+                return null;
+            }
+            position += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private record Candidate(long weight, long order, Node node, Term term) {
+    }
+
+    private static final Comparator<Candidate> HEAVIEST_FIRST = Comparator
+            .comparingLong(Candidate::weight).reversed()
+            // a completion found is emitted before equally heavy subtrees are opened
+            .thenComparing(candidate -> candidate.term() == null)
+            .thenComparingLong(Candidate::order);
+
+    private static List<ProductSuggestion> bestFirst(Node start, int limit) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(HEAVIEST_FIRST);
+        long order = 0;
+        queue.add(new Candidate(start.best, order++, start, null));
+        List<ProductSuggestion> result = new ArrayList<>(limit);
+        // a term can be reached through several of its word starts
+        Set<Term> seen = new HashSet<>();
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.term() != null) {
+                Term term = candidate.term();
+                if (seen.add(term)) {
+                    result.add(new ProductSuggestion(term.text, term.type(), term.products(), term.weight()));
+                }
+                continue;
+            }
+            Node node = candidate.node();
+            if (node.terms != null) {
+                for (Term term : node.terms) {
+                    queue.add(new Candidate(term.weight(), order++, null, term));
+                }
+            }
+            for (Node child : node.children) {
+                queue.add(new Candidate(child.best, order++, child, null));
+            }
+        }
+        return result;
+    }
+
+    // caller holds the write lock
+    private void put(ProductState product) {
+        Term name = term(product.name());
+        Term category = term(product.category());
+        long listed = (name == null ? 0 : (name.id + 1L) << 32) | (category == null ? 0 : category.id + 1L);
+        long previous = listed == 0 ? products.remove(product.id()) : products.put(product.id(), listed);
+        Term previousName = nameOf(previous);
+        Term previousCategory = categoryOf(previous);
+        if (name != previousName) {
+            link(name, true);
+            unlink(previousName, true);
+        }
+        if (category != previousCategory) {
+            link(category, false);
+            unlink(previousCategory, false);
+        }
+    }
+
+    private Term nameOf(long listed) {
+        int id = (int) (listed >>> 32) - 1;
+        return id < 0 ? null : termsById[id];
+    }
+
+    private Term categoryOf(long listed) {
+        int id = (int) listed - 1;
+        return id < 0 ? null : termsById[id];
+    }
+
+    // The existing completion for the text, or a new one not in the trie yet
+    private Term term(String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        Term term = terms.get(normalized);
+        if (term == null) {
+            term = new Term(newTermId(), text.trim());
+            termsById[term.id] = term;
+            terms.put(normalized, term);
+            termBytes += termBytes(term);
+        }
+        return term;
+    }
+
+    private int newTermId() {
+        if (freeTermCount > 0) {
+            return freeTermIds[--freeTermCount];
+        }
+        if (nextTermId == termsById.length) {
+            termsById = Arrays.copyOf(termsById, termsById.length * 2);
+        }
+        return nextTermId++;
+    }
+
+    private void releaseTerm(Term term) {
+        terms.remove(normalize(term.text));
+        termsById[term.id] = null;
+        if (freeTermCount == freeTermIds.length) {
+            freeTermIds = Arrays.copyOf(freeTermIds, freeTermIds.length * 2);
+        }
+        freeTermIds[freeTermCount++] = term.id;
+        termBytes -= termBytes(term);
+    }
+
+    private void link(Term term, boolean name) {
+        if (term == null) {
+            return;
+        }
+        boolean added = term.listed() == 0;
+        if (name && term.names++ == 0) {
+            nameTerms++;
+        } else if (!name && term.categories++ == 0) {
+            categoryTerms++;
+        }
+        for (String key : term.keys()) {
+            if (added) {
+                insert(key, term);
+            }
+            refresh(key);
+        }
+    }
+
+    private void unlink(Term term, boolean name) {
+        if (term == null) {
+            return;
+        }
+        if (name && --term.names == 0) {
+            nameTerms--;
+        } else if (!name && --term.categories == 0) {
+            categoryTerms--;
+        }
+        String[] keys = term.keys();
+        if (term.listed() == 0) {
+            // views die with the last product carrying the text
+            releaseTerm(term);
+            for (String key : keys) {
+                removeTerm(key, term);
+            }
+        }
+        for (String key : keys) {
+            refresh(key);
+        }
+    }
+
+    private void insert(String key, Term term) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            int index = Arrays.binarySearch(node.firsts, key.charAt(position));
+            if (index < 0) {
+                Node leaf = newNode(key, position);
+                addChild(node, -index - 1, leaf);
+                node = leaf;
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child, key, position);
+            if (common < child.length) {
+                // split the edge where the key leaves it; both halves keep their chars in place
+                Node middle = new Node(child.start, common);
+                child.start += common;
+                child.length -= common;
+                middle.firsts = new char[]{chars[child.start]};
+                middle.children = new Node[]{child};
+                middle.best = child.best;
+                nodes++;
+                nodeBytes += NODE_BYTES + arrayBytes(middle);
+                node.children[index] = middle;
+                child = middle;
+            }
+            position += common;
+            node = child;
+        }
+        if (node.terms != null && Arrays.asList(node.terms).contains(term)) {
+            return;
+        }
+        nodeBytes -= arrayBytes(node);
+        if (node.terms == null) {
+            node.terms = new Term[]{term};
+        } else {
+            node.terms = Arrays.copyOf(node.terms, node.terms.length + 1);
+            node.terms[node.terms.length - 1] = term;
+        }
+        nodeBytes += arrayBytes(node);
+    }
+
+    private void removeTerm(String key, Term term) {
+        Node node = descend(key);
+        if (node == null || node.terms == null) {
+            return;
+        }
+        nodeBytes -= arrayBytes(node);
+        Term[] remaining = Arrays.stream(node.terms).filter(t -> t != term).toArray(Term[]::new);
+        node.terms = remaining.length == 0 ? null : remaining;
+        nodeBytes += arrayBytes(node);
+    }
+
+    private Node descend(String key) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            Node child = child(node, key.charAt(position));
+            if (child == null || commonPrefix(child, key, position) < child.length) {
+                return null;
+            }
+            position += child.length;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Recomputes the best weights along the key's path from the bottom up,
+     * dropping nodes left without completions and merging a node left with a
+     * single child into it, so the trie stays as small as after a fresh build.
+     */
+    private void refresh(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = child(node, key.charAt(position));
+            if (child == null || commonPrefix(child, key, position) < child.length) {
+                break;
+            }
+            position += child.length;
+            node = child;
+            path.add(node);
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            if (i > 0) {
+                Node parent = path.get(i - 1);
+                if (current.terms == null && current.children.length == 0) {
+                    removeChild(parent, current);
+                    nodes--;
+                    labelChars -= current.length;
+                    nodeBytes -= NODE_BYTES;
+                    continue;
+                }
+                if (current.terms == null && current.children.length == 1) {
+                    current = merge(parent, current);
+                }
+            }
+            long best = 0;
+            if (current.terms != null) {
+                for (Term term : current.terms) {
+                    best = Math.max(best, term.weight());
+                }
+            }
+            for (Node child : current.children) {
+                best = Math.max(best, child.best);
+            }
+            current.best = best;
+        }
+    }
+
+    // Folds the node into its only child, which takes its place under the parent
+    private Node merge(Node parent, Node current) {
+        Node only = current.children[0];
+        if (current.start + current.length == only.start) {
+            // still side by side since the split that made them
+            only.start = current.start;
+        } else {
+            int start = append(current.start, current.length);
+            append(only.start, only.length);
+            only.start = start;
+        }
+        only.length += current.length;
+        replaceChild(parent, current, only);
+        nodes--;
+        nodeBytes -= NODE_BYTES + arrayBytes(current);
+        return only;
+    }
+
+    // A node labelled with the key from the position on, its chars appended to the buffer
+    private Node newNode(String key, int position) {
+        int length = key.length() - position;
+        reserve(length);
+        key.getChars(position, key.length(), chars, charsUsed);
+        Node node = new Node(charsUsed, length);
+        charsUsed += length;
+        nodes++;
+        labelChars += length;
+        nodeBytes += NODE_BYTES;
+        return node;
+    }
+
+    // Copies a range of the buffer to its end; the old range is left for the next compaction
+    private int append(int from, int length) {
+        reserve(length);
+        System.arraycopy(chars, from, chars, charsUsed, length);
+        int start = charsUsed;
+        charsUsed += length;
+        return start;
+    }
+
+    private void reserve(int length) {
+        if (charsUsed + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charsUsed + length));
+        }
+    }
+
+    private static Node child(Node node, char first) {
+        int index = Arrays.binarySearch(node.firsts, first);
+        return index < 0 ? null : node.children[index];
+    }
+
+    private void addChild(Node node, int index, Node child) {
+        nodeBytes -= arrayBytes(node);
+        int length = node.children.length;
+        char[] firsts = new char[length + 1];
+        Node[] children = new Node[length + 1];
+        System.arraycopy(node.firsts, 0, firsts, 0, index);
+        System.arraycopy(node.children, 0, children, 0, index);
+        firsts[index] = chars[child.start];
+        children[index] = child;
+        System.arraycopy(node.firsts, index, firsts, index + 1, length - index);
+        System.arraycopy(node.children, index, children, index + 1, length - index);
+        node.firsts = firsts;
+        node.children = children;
+        nodeBytes += arrayBytes(node);
+    }
+
+    private void removeChild(Node node, Node child) {
+        nodeBytes -= arrayBytes(node);
+        int index = Arrays.binarySearch(node.firsts, chars[child.start]);
+        int length = node.children.length;
+        char[] firsts = new char[length - 1];
+        Node[] children = new Node[length - 1];
+        System.arraycopy(node.firsts, 0, firsts, 0, index);
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.firsts, index + 1, firsts, index, length - index - 1);
+        System.arraycopy(node.children, index + 1, children, index, length - index - 1);
+        node.firsts = firsts.length == 0 ? NO_CHARS : firsts;
+        node.children = children.length == 0 ? NO_NODES : children;
+        nodeBytes += arrayBytes(node);
+    }
+
+    // the replacement starts with the same char, so the order is unchanged
+    private void replaceChild(Node node, Node child, Node replacement) {
+        node.children[Arrays.binarySearch(node.firsts, chars[replacement.start])] = replacement;
+    }
+
+    private int commonPrefix(Node node, String key, int position) {
+        int max = Math.min(node.length, key.length() - position);
+        int i = 0;
+        while (i < max && chars[node.start + i] == key.charAt(position + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Lower case, whitespace runs collapsed to one space, trimmed
+    static String normalize(String text) {
+        return normalizePrefix(text).stripTrailing();
+    }
+
+    // As normalize, but a trailing space is kept: "desk " only matches whole words
+    private static String normalizePrefix(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = result.length() > 0;
+                continue;
+            }
+            if (space) {
+                result.append(' ');
+                space = false;
+            }
+            result.append(Character.toLowerCase(c));
+        }
+        if (space) {
+            result.append(' ');
+        }
+        return result.toString();
+    }
+
+    private static String[] wordStarts(String normalized) {
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0 && keys.size() < MAX_WORD_STARTS; i = normalized.indexOf(' ', i + 1)) {
+            String key = normalized.substring(i + 1);
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys.toArray(String[]::new);
+    }
+
+    // the child and term arrays of a node, which change as the trie does
+    private static long arrayBytes(Node node) {
+        long bytes = 0;
+        if (node.children.length > 0) {
+            bytes += align(16 + 2L * node.firsts.length) + align(16 + 4L * node.children.length);
+        }
+        if (node.terms != null) {
+            bytes += align(16 + 4L * node.terms.length);
+        }
+        return bytes;
+    }
+
+    // the term, its text and the normalized text keying the map
+    private static long termBytes(Term term) {
+        return TERM_BYTES + 2 * stringBytes(term.text);
+    }
+
+    private static long stringBytes(String text) {
+        return align(24) + align(16 + text.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -3,6 +3,7 @@ const API_BASE_URL = 'http://localhost:8080/api/products';
 // DOM Elements
 let productsTable = document.getElementById('productsTable');
 let searchInput = document.getElementById('searchInput');
+let searchSuggestions = document.getElementById('searchSuggestions');
 let categoryFilter = document.getElementById('categoryFilter');
 let totalProductsEl = document.getElementById('totalProducts');
 let inventoryValueEl = document.getElementById('inventoryValue');
@@ -11,12 +12,56 @@ let productModal = document.getElementById('productModal');
 let productForm = document.getElementById('productForm');
 let modalTitle = document.getElementById('modalTitle');
 
+// Full product list, kept current by the change feed
+let currentProducts = [];
+let changeFeed = null;
+
 // Initialize
 document.addEventListener('DOMContentLoaded', function() {
     loadProducts();
     updateStats();
+    subscribeToChanges();
 });
 
+// Apply pushed changes instead of reloading after every write
+function subscribeToChanges() {
+    if (!window.EventSource) return;
+    changeFeed = new EventSource(API_BASE_URL + '/changes');
+    changeFeed.addEventListener('changes', event => applyChanges(JSON.parse(event.data)));
+    // the server dropped changes for us (we fell behind), start over
+    changeFeed.addEventListener('reset', () => {
+        loadProducts();
+        updateStats();
+    });
+}
+
+function applyChanges(batch) {
+    const byId = new Map(currentProducts.map(p => [p.id, p]));
+    batch.changes.forEach(change => {
+        if (change.type === 'DELETED') {
+            byId.delete(change.id);
+        } else {
+            const previous = byId.get(change.id);
+            const createdAt = previous ? previous.createdAt : change.product.updatedAt;
+            byId.set(change.id, { ...previous, ...change.product, createdAt: createdAt });
+        }
+    });
+    currentProducts = [...byId.values()].sort((a, b) => a.id - b.id);
+    if (searchInput.value.trim() || categoryFilter.value) {
+        applyFilters();
+    } else {
+        renderProducts(currentProducts);
+    }
+    updateCategoryFilter(currentProducts);
+    if (batch.stats) {
+        renderStats(batch.stats);
+    }
+}
+
+function feedOpen() {
+    return changeFeed && changeFeed.readyState === EventSource.OPEN;
+}
+
 // Load all products
 async function loadProducts() {
     try {
@@ -24,6 +69,7 @@ async function loadProducts() {
         const response = await fetch(API_BASE_URL);
         const products = await response.json();
 
+        currentProducts = products;
         renderProducts(products);
         updateCategoryFilter(products);
     } catch (error) {
@@ -68,27 +114,14 @@ function renderProducts(products) {
     `).join('');
 }
 
-// Update stats
 // Update stats
 async function updateStats() {
     try {
-        // Get count
-        const countRes = await fetch(API_BASE_URL + '/count');
-        const countData = await countRes.json();
-        totalProductsEl.textContent = countData.count;
-
-        // Get inventory value
-        const valueRes = await fetch(API_BASE_URL + '/inventory/value');
-        const valueData = await valueRes.json();
-        const inventoryValue = valueData.inventoryValue || 0;
-        inventoryValueEl.textContent = `$${parseFloat(inventoryValue).toFixed(2)}`;
-
-        // Get category count
-        const categoryRes = await fetch(API_BASE_URL + '/categories/count');
-        const categoryData = await categoryRes.json();
-        const categoryCount = categoryData.count || 0;
-        categoryCountEl.textContent = categoryCount;
+        // One round trip for count, inventory value and category count
+        const statsRes = await fetch(API_BASE_URL + '/stats');
+        const stats = await statsRes.json();
 
+        renderStats(stats);
     } catch (error) {
         console.error('Error updating stats:', error);
         // Set default values
@@ -98,6 +131,13 @@ async function updateStats() {
     }
 }
 
+function renderStats(stats) {
+    totalProductsEl.textContent = stats.count;
+    const inventoryValue = stats.inventoryValue || 0;
+    inventoryValueEl.textContent = `$${parseFloat(inventoryValue).toFixed(2)}`;
+    categoryCountEl.textContent = stats.categoryCount || 0;
+}
+
 // Update category filter dropdown
 function updateCategoryFilter(products) {
     const categories = [...new Set(products.map(p => p.category).filter(Boolean))];
@@ -115,38 +155,75 @@ function updateCategoryFilter(products) {
     });
 }
 
-// Search products
-async function searchProducts() {
-    const query = searchInput.value.trim();
+// Search products: suggestions on every keystroke, the filter once typing pauses
+let filterTimer = null;
+let lastSuggestions = [];
 
-    if (!query) {
-        loadProducts();
+function searchProducts() {
+    const query = searchInput.value.trim();
+    // a picked category suggestion becomes the category filter
+    const category = lastSuggestions.find(s => s.type === 'category' && s.text === query);
+    if (category && [...categoryFilter.options].some(o => o.value === category.text)) {
+        categoryFilter.value = category.text;
+        searchInput.value = '';
+        applyFilters();
         return;
     }
+    suggest(searchInput.value);
+    clearTimeout(filterTimer);
+    filterTimer = setTimeout(applyFilters, 300);
+}
 
+async function suggest(prefix) {
+    if (!prefix.trim()) {
+        searchSuggestions.innerHTML = '';
+        return;
+    }
     try {
-        showLoading();
-        const response = await fetch(`${API_BASE_URL}/search?name=${encodeURIComponent(query)}`);
-        const products = await response.json();
-        renderProducts(products);
+        const response = await fetch(`${API_BASE_URL}/suggest?${new URLSearchParams({ q: prefix })}`);
+        if (!response.ok) return;
+        // a slower earlier response must not replace the current one
+        if (prefix !== searchInput.value) return;
+        lastSuggestions = await response.json();
+        searchSuggestions.innerHTML = '';
+        lastSuggestions.forEach(s => {
+            const option = document.createElement('option');
+            option.value = s.text;
+            option.label = s.type === 'category' ? `Category (${s.products})` : '';
+            searchSuggestions.appendChild(option);
+        });
     } catch (error) {
-        console.error('Search error:', error);
+        console.error('Suggest error:', error);
     }
 }
 
 // Filter by category
 function filterByCategory() {
+    applyFilters();
+}
+
+// Search text and category are applied together in one faceted request
+async function applyFilters() {
+    const query = searchInput.value.trim();
     const category = categoryFilter.value;
 
-    if (!category) {
+    if (!query && !category) {
         loadProducts();
         return;
     }
 
-    fetch(`${API_BASE_URL}/category/${encodeURIComponent(category)}`)
-        .then(res => res.json())
-        .then(products => renderProducts(products))
-        .catch(err => console.error('Filter error:', err));
+    const params = new URLSearchParams({ size: 500 });
+    if (query) params.append('q', query);
+    if (category) params.append('category', category);
+
+    try {
+        showLoading();
+        const response = await fetch(`${API_BASE_URL}/filter?${params}`);
+        const page = await response.json();
+        renderProducts(page.items || []);
+    } catch (error) {
+        console.error('Filter error:', error);
+    }
 }
 
 // Show add product form
@@ -204,8 +281,10 @@ async function saveProduct(event) {
         if (!response.ok) throw new Error('Failed to save');
 
         closeModal();
-        loadProducts();
-        updateStats();
+        if (!feedOpen()) {
+            loadProducts();
+            updateStats();
+        }
 
         // Show success message
         showMessage('Product saved successfully!', 'success');
@@ -224,8 +303,10 @@ async function deleteProduct(id) {
 
         if (!response.ok) throw new Error('Failed to delete');
 
-        loadProducts();
-        updateStats();
+        if (!feedOpen()) {
+            loadProducts();
+            updateStats();
+        }
         showMessage('Product deleted successfully!', 'success');
     } catch (error) {
         showMessage('Failed to delete product', 'error');
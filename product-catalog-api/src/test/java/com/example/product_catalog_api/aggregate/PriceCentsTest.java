@@ -0,0 +1,58 @@
+package com.example.product_catalog_api.aggregate;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceCentsTest {
+
+	@Test
+	void sumEqualsBigDecimalSumIncludingScale() {
+		Random random = new Random(42);
+		// large enough to be split across the fork-join pool
+		long[] cents = new long[1_000_003];
+		for (int i = 0; i < cents.length; i++) {
+			cents[i] = random.nextLong(-1_000_000_000L, 100_000_000_000L);
+		}
+
+		BigDecimal expected = bigDecimalSum(cents);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			assertThat(PriceCents.sum(cents, 0, cents.length, pool)).isEqualTo(expected);
+		} finally {
+			pool.shutdown();
+		}
+		assertThat(PriceCents.sum(cents, 0, cents.length)).isEqualTo(expected);
+		assertThat(PriceCents.sum(cents, 17, 1_000)).isEqualTo(bigDecimalSum(Arrays.copyOfRange(cents, 17, 1_000)));
+		assertThat(PriceCents.sum(cents, 5, 5)).isEqualTo(new BigDecimal("0.00"));
+	}
+
+	@Test
+	void sumBeyondLongRangeIsStillExact() {
+		long[] cents = {Long.MAX_VALUE, Long.MAX_VALUE, 1, Long.MIN_VALUE, Long.MAX_VALUE};
+
+		assertThat(PriceCents.sum(cents, 0, cents.length)).isEqualTo(bigDecimalSum(cents));
+		assertThat(PriceCents.sumExact(cents, 2, 5)).isEqualTo(0);
+		assertThatThrownBy(() -> PriceCents.sumExact(cents, 0, 2)).isInstanceOf(ArithmeticException.class);
+	}
+
+	@Test
+	void pricesRoundToTheColumnScale() {
+		assertThat(PriceCents.of(new BigDecimal("12.3"))).isEqualTo(1230);
+		assertThat(PriceCents.of(new BigDecimal("0.005"))).isEqualTo(1);
+		assertThat(PriceCents.of(new BigDecimal("-4.994"))).isEqualTo(-499);
+		assertThat(PriceCents.toPrice(1230)).isEqualTo(new BigDecimal("12.30"));
+		assertThat(PriceCents.average(1000, 3)).isEqualTo(new BigDecimal("3.33"));
+		assertThat(PriceCents.average(0, 0)).isNull();
+	}
+
+	private static BigDecimal bigDecimalSum(long[] cents) {
+		return Arrays.stream(cents).mapToObj(PriceCents::toPrice).reduce(new BigDecimal("0.00"), BigDecimal::add);
+	}
+}
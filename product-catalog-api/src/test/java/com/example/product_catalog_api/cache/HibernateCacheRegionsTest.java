@@ -0,0 +1,82 @@
+package com.example.product_catalog_api.cache;
+
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.repository.ProductRepository;
+import com.example.product_catalog_api.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PATCH and the bulk endpoints write over JDBC, behind Hibernate's back; cached
+ * entities and category query results must still reflect them.
+ */
+@SpringBootTest
+class HibernateCacheRegionsTest {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private HibernateCacheRegions hibernateCacheRegions;
+
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		productRepository.deleteAll();
+		product = productService.createProduct(new Product("Lamp", null, new BigDecimal("10.00"), "cache-test"));
+	}
+
+	@Test
+	void repeatedCategoryQueriesAreServedFromTheQueryCache() throws InterruptedException {
+		// cache timestamps have millisecond resolution: a result cached in the same
+		// millisecond as the last write is treated as stale
+		Thread.sleep(5);
+		productRepository.findByCategory("cache-test");
+		long hits = queryCacheHits();
+
+		assertThat(productRepository.findByCategory("cache-test")).hasSize(1);
+		assertThat(queryCacheHits()).isEqualTo(hits + 1);
+	}
+
+	@Test
+	void conditionalUpdateInvalidatesCachedEntityAndQuery() {
+		productRepository.findByCategory("cache-test");
+		productRepository.findById(product.getId());
+
+		Product changes = new Product();
+		changes.setPrice(new BigDecimal("12.50"));
+		productService.patchProduct(product.getId(), changes);
+
+		assertThat(productRepository.findByCategory("cache-test"))
+				.extracting(Product::getPrice).containsExactly(new BigDecimal("12.50"));
+		assertThat(productRepository.findById(product.getId()).orElseThrow().getPrice())
+				.isEqualByComparingTo("12.50");
+	}
+
+	@Test
+	void bulkWritesInvalidateCategoryQueries() {
+		productRepository.findByCategory("cache-test");
+
+		productService.createProducts(List.of(new Product("Desk", null, BigDecimal.ONE, "cache-test")));
+		assertThat(productRepository.findByCategory("cache-test")).hasSize(2);
+
+		productService.deleteProducts(List.of(product.getId()));
+		assertThat(productRepository.findByCategory("cache-test"))
+				.extracting(Product::getName).containsExactly("Desk");
+	}
+
+	private long queryCacheHits() {
+		return (Long) hibernateCacheRegions.getStats().get("queryCacheHitCount");
+	}
+}
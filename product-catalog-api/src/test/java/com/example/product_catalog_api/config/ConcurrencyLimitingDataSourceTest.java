@@ -0,0 +1,50 @@
+package com.example.product_catalog_api.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitingDataSourceTest {
+
+	private final ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(
+			h2(), 2, Duration.ofMillis(100));
+
+	@Test
+	void connectionsHoldTheirPermitUntilClosed() throws Exception {
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+		assertThat(dataSource.getActive()).isEqualTo(2);
+
+		first.close();
+		// closing twice must not hand out an extra permit
+		first.close();
+		assertThat(dataSource.getActive()).isEqualTo(1);
+
+		second.close();
+		assertThat(dataSource.getActive()).isZero();
+	}
+
+	@Test
+	void callersBeyondTheLimitTimeOut() throws Exception {
+		try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+			assertThatThrownBy(dataSource::getConnection)
+					.isInstanceOf(SQLTransientConnectionException.class)
+					.hasMessageContaining("2 in use");
+		}
+		try (Connection connection = dataSource.getConnection()) {
+			assertThat(connection.isValid(1)).isTrue();
+		}
+	}
+
+	private static JdbcDataSource h2() {
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:limiter");
+		return h2;
+	}
+}
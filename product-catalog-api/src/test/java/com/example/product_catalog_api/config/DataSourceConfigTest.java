@@ -0,0 +1,75 @@
+package com.example.product_catalog_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A second pool on the test database stands in for the replica; which pool lends
+ * the connection shows where a transaction was routed.
+ */
+@SpringBootTest(properties = {
+		"catalog.datasource.replica.url=jdbc:h2:mem:product_catalog;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"catalog.datasource.replica.hikari.pool-name=replica"})
+class DataSourceConfigTest {
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private HikariDataSource primary;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private HikariDataSource replica;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void readOnlyTransactionsUseTheReplica() {
+		transaction(true).executeWithoutResult(status -> {
+			jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+			assertThat(active(replica)).isEqualTo(1);
+			assertThat(active(primary)).isZero();
+		});
+	}
+
+	@Test
+	void readWriteTransactionsUseThePrimary() {
+		transaction(false).executeWithoutResult(status -> {
+			jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+			assertThat(active(primary)).isEqualTo(1);
+			assertThat(active(replica)).isZero();
+		});
+	}
+
+	@Test
+	void transactionsWithoutStatementsBorrowNoConnection() {
+		transaction(true).executeWithoutResult(status -> {
+			assertThat(active(primary)).isZero();
+			assertThat(active(replica)).isZero();
+		});
+	}
+
+	private TransactionTemplate transaction(boolean readOnly) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(readOnly);
+		return template;
+	}
+
+	// the pool only exists once it has lent its first connection
+	private static int active(HikariDataSource dataSource) {
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool == null ? 0 : pool.getActiveConnections();
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.product_catalog_api.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductVersionsTest {
+
+	private final ProductVersions versions = new ProductVersions();
+
+	@Test
+	void acceptsOnlyNewerVersions() {
+		assertThat(versions.accept(updated(1L, 2L))).isTrue();
+		assertThat(versions.accept(updated(1L, 1L))).isFalse();
+		assertThat(versions.accept(updated(1L, 2L))).isFalse();
+		assertThat(versions.accept(updated(1L, 3L))).isTrue();
+		assertThat(versions.accept(updated(2L, 1L))).isTrue();
+	}
+
+	@Test
+	void loadedVersionsCountAsApplied() {
+		versions.loaded(state(1L, 3L));
+		assertThat(versions.accept(updated(1L, 3L))).isFalse();
+		assertThat(versions.accept(updated(1L, 4L))).isTrue();
+	}
+
+	@Test
+	void changeArrivingAfterItsDeleteIsDropped() {
+		assertThat(versions.accept(updated(1L, 1L))).isTrue();
+		assertThat(versions.accept(ProductChangedEvent.deleted(state(1L, 2L)))).isTrue();
+		assertThat(versions.accept(updated(1L, 2L))).isFalse();
+		// a delete always applies, even one for a product never seen
+		assertThat(versions.accept(ProductChangedEvent.deleted(state(5L, 0L)))).isTrue();
+	}
+
+	@Test
+	void bulkDeletesAreRememberedForAMinuteWhateverTheirSize() {
+		AtomicLong now = new AtomicLong();
+		ProductVersions versions = new ProductVersions(now::get);
+		for (long id = 1; id <= 50_000; id++) {
+			versions.accept(ProductChangedEvent.deleted(state(id, 1L)));
+		}
+		now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+		assertThat(versions.accept(updated(1L, 2L))).isFalse();
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+		assertThat(versions.accept(updated(1L, 2L))).isTrue();
+	}
+
+	@Test
+	void changeWithoutAVersionAlwaysApplies() {
+		assertThat(versions.accept(updated(1L, 5L))).isTrue();
+		assertThat(versions.accept(updated(1L, null))).isTrue();
+		// and forgets what was known, so the next versioned change applies whatever its version
+		assertThat(versions.accept(updated(1L, 1L))).isTrue();
+
+		assertThat(versions.accept(ProductChangedEvent.deleted(state(2L, 0L)))).isTrue();
+		assertThat(versions.accept(updated(2L, null))).isTrue();
+		assertThat(versions.accept(updated(2L, 1L))).isTrue();
+	}
+
+	@Test
+	void keepsEveryEntryFindableThroughResizesAndRemovals() {
+		int count = 5000;
+		for (long id = 1; id <= count; id++) {
+			versions.loaded(state(id, id));
+		}
+		// null-version changes remove the entry without a tombstone, leaving gaps the
+		// colliding entries after them have to be shifted back over
+		for (long id = 1; id <= count; id += 3) {
+			assertThat(versions.accept(updated(id, null))).isTrue();
+		}
+		for (long id = 1; id <= count; id++) {
+			boolean removed = (id - 1) % 3 == 0;
+			assertThat(versions.accept(updated(id, id))).as("id %d", id).isEqualTo(removed);
+		}
+	}
+
+	@Test
+	void clearForgetsVersionsAndDeletes() {
+		versions.accept(updated(1L, 5L));
+		versions.accept(ProductChangedEvent.deleted(state(2L, 1L)));
+		versions.clear();
+
+		assertThat(versions.accept(updated(1L, 1L))).isTrue();
+		assertThat(versions.accept(updated(2L, 1L))).isTrue();
+	}
+
+	private static ProductChangedEvent updated(Long id, Long version) {
+		return ProductChangedEvent.updated(state(id, version == null ? null : version - 1), state(id, version));
+	}
+
+	private static ProductState state(Long id, Long version) {
+		return new ProductState(id, "Product " + id, null, BigDecimal.ONE, null, null, version);
+	}
+}
@@ -0,0 +1,119 @@
+package com.example.product_catalog_api.facet;
+
+import com.example.product_catalog_api.dto.FacetedProductPage.CategoryFacet;
+import com.example.product_catalog_api.dto.FacetedProductPage.PriceFacet;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetIndexTest {
+
+	private ProductFacetIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductFacetIndex();
+		add(1L, "Electronics", "25.00");
+		add(2L, "Electronics", "150.00");
+		add(3L, "Furniture", "120.00");
+		add(4L, "Furniture", "399.99");
+		add(5L, null, "80.00");
+	}
+
+	@Test
+	void countsEveryFacetWithoutFilters() {
+		ProductFacetIndex.Result result = index.query(List.of(), null, null, null, 0L, 10);
+		assertThat(result.ids()).containsExactly(1L, 2L, 3L, 4L, 5L);
+		assertThat(result.total()).isEqualTo(5);
+		assertThat(result.categories()).containsExactly(
+				new CategoryFacet("Electronics", 2), new CategoryFacet("Furniture", 2));
+		assertThat(result.priceBuckets()).extracting(PriceFacet::count).containsExactly(2L, 2L, 1L);
+	}
+
+	@Test
+	void countsEachFacetWithTheOtherFilters() {
+		ProductFacetIndex.Result result = index.query(List.of("Furniture"), null, new BigDecimal("200"), null, 0L, 10);
+		assertThat(result.ids()).containsExactly(3L);
+		// categories ignore the category filter, price buckets ignore the price filter
+		assertThat(result.categories()).containsExactly(
+				new CategoryFacet("Electronics", 2), new CategoryFacet("Furniture", 1));
+		assertThat(result.priceBuckets()).extracting(PriceFacet::count).containsExactly(1L, 1L);
+	}
+
+	@Test
+	void checksExactPricesInEdgeBuckets() {
+		ProductFacetIndex.Result result = index.query(List.of(), new BigDecimal("30"), new BigDecimal("150.00"), null, 0L, 10);
+		assertThat(result.ids()).containsExactly(2L, 3L, 5L);
+	}
+
+	@Test
+	void intersectsTextMatchesAndPages() {
+		ProductFacetIndex.Result result = index.query(List.of(), null, null, Set.of(1L, 3L, 4L), 1L, 1);
+		assertThat(result.ids()).containsExactly(3L);
+		assertThat(result.total()).isEqualTo(3);
+	}
+
+	@Test
+	void blankCategoriesAreNoFacet() {
+		add(6L, "", "10.00");
+		add(7L, "  ", "10.00");
+
+		ProductFacetIndex.Result result = index.query(List.of(), null, null, null, 0L, 10);
+		assertThat(result.categories()).containsExactly(
+				new CategoryFacet("Electronics", 2), new CategoryFacet("Furniture", 2));
+		assertThat(result.total()).isEqualTo(7);
+	}
+
+	@Test
+	void pagesInIdOrderWhenSlotsAreReused() {
+		index.onProductChanged(ProductChangedEvent.deleted(ProductState.of(product(1L, "Electronics", "25.00"))));
+		index.onProductChanged(ProductChangedEvent.deleted(ProductState.of(product(2L, "Electronics", "150.00"))));
+		add(8L, "Toys", "10.00");
+		add(6L, "Toys", "12.00");
+
+		assertThat(index.query(List.of(), null, null, null, 0L, 3).ids()).containsExactly(3L, 4L, 5L);
+		assertThat(index.query(List.of(), null, null, null, 4L, 2).ids()).containsExactly(5L, 6L);
+		assertThat(index.query(List.of(), null, null, null, 5L, 10).ids()).containsExactly(6L, 8L);
+	}
+
+	@Test
+	void appliesUpdatesAndDeletes() {
+		Product desk = product(3L, "Furniture", "120.00");
+		Product moved = product(3L, "Office", "500.00");
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(desk), moved));
+		index.onProductChanged(ProductChangedEvent.deleted(ProductState.of(product(4L, "Furniture", "399.99"))));
+
+		ProductFacetIndex.Result result = index.query(List.of("Office"), new BigDecimal("500"), null, null, 0L, 10);
+		assertThat(result.ids()).containsExactly(3L);
+		assertThat(index.query(List.of("Furniture"), null, null, null, 0L, 10).ids()).isEmpty();
+		assertThat(index.size()).isEqualTo(4);
+	}
+
+	@Test
+	void ignoresChangesOlderThanTheIndexedOne() {
+		ProductState office = new ProductState(3L, "Product 3", null, new BigDecimal("500.00"), "Office", null, 1L);
+		ProductState outlet = new ProductState(3L, "Product 3", null, new BigDecimal("90.00"), "Outlet", null, 2L);
+		index.onProductChanged(ProductChangedEvent.updated(office, outlet));
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(product(3L, "Furniture", "120.00")), office));
+
+		assertThat(index.query(List.of("Office"), null, null, null, 0L, 10).ids()).isEmpty();
+	}
+
+	private void add(Long id, String category, String price) {
+		index.onProductChanged(ProductChangedEvent.created(product(id, category, price)));
+	}
+
+	private static Product product(Long id, String category, String price) {
+		Product product = new Product("Product " + id, null, new BigDecimal(price), category);
+		product.setId(id);
+		return product;
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.product_catalog_api.feed;
+
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductChangeFeedTest {
+
+	private final Map<Long, ProductChangeFeed.Change> pending = new LinkedHashMap<>();
+
+	@Test
+	void repeatedUpdatesKeepOnlyTheLatestState() {
+		ProductState v1 = state(1L, "1.00");
+		ProductState v2 = state(1L, "2.00");
+		ProductState v3 = state(1L, "3.00");
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.updated(v1, v2));
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.updated(v2, v3));
+
+		assertThat(pending.values()).containsExactly(
+				new ProductChangeFeed.Change(ProductChangedEvent.Type.UPDATED, 1L, v3));
+	}
+
+	@Test
+	void updateAfterCreateIsStillACreate() {
+		ProductState created = state(1L, "1.00");
+		ProductState updated = state(1L, "2.00");
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.created(created));
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.updated(created, updated));
+
+		assertThat(pending.values()).containsExactly(
+				new ProductChangeFeed.Change(ProductChangedEvent.Type.CREATED, 1L, updated));
+	}
+
+	@Test
+	void createThenDeleteIsDropped() {
+		ProductState created = state(1L, "1.00");
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.created(created));
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.created(state(2L, "5.00")));
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.deleted(created));
+
+		assertThat(pending).containsOnlyKeys(2L);
+	}
+
+	@Test
+	void deleteAfterUpdateIsADelete() {
+		ProductState before = state(1L, "1.00");
+		ProductState after = state(1L, "2.00");
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.updated(before, after));
+		ProductChangeFeed.coalesce(pending, ProductChangedEvent.deleted(after));
+
+		assertThat(pending.get(1L).type()).isEqualTo(ProductChangedEvent.Type.DELETED);
+	}
+
+	@Test
+	void changeArrivingAfterANewerOneIsDropped() {
+		ProductChangeFeed feed = new ProductChangeFeed();
+		ReflectionTestUtils.setField(feed, "bufferSize", 1000);
+		ProductChangeFeed.Subscriber subscriber = feed.register(new SseEmitter());
+		ProductState v0 = state(1L, "1.00", 0L);
+		ProductState v1 = state(1L, "2.00", 1L);
+		ProductState v2 = state(1L, "3.00", 2L);
+		feed.onProductChanged(ProductChangedEvent.updated(v1, v2));
+		feed.onProductChanged(ProductChangedEvent.updated(v0, v1));
+
+		assertThat(subscriber.pending.values()).containsExactly(
+				new ProductChangeFeed.Change(ProductChangedEvent.Type.UPDATED, 1L, v2));
+	}
+
+	private static ProductState state(Long id, String price) {
+		return state(id, price, null);
+	}
+
+	private static ProductState state(Long id, String price, Long version) {
+		return new ProductState(id, "Product " + id, null, new BigDecimal(price), "C", LocalDateTime.now(), version);
+	}
+}
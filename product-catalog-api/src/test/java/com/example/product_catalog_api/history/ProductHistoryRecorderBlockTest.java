@@ -0,0 +1,63 @@
+package com.example.product_catalog_api.history;
+
+import com.example.product_catalog_api.entity.ProductHistory;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.repository.ProductBatchRepository;
+import com.example.product_catalog_api.repository.ProductHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"catalog.history.capacity=1",
+		"catalog.history.overflow-policy=BLOCK",
+		"catalog.history.offer-timeout=PT10S"})
+@Import({ProductHistoryRecorder.class, ProductBatchRepository.class})
+class ProductHistoryRecorderBlockTest {
+
+	@Autowired
+	private ProductHistoryRecorder recorder;
+
+	@Autowired
+	private ProductHistoryRepository productHistoryRepository;
+
+	@Test
+	void writerWaitsForTheFlushToMakeRoom() throws InterruptedException {
+		LocalDateTime now = LocalDateTime.now();
+		ProductState v1 = state("1.00");
+		ProductState v2 = state("2.00");
+		long blocked = (long) recorder.getStats().get("blocked");
+		recorder.record(new ProductHistory(ProductChangedEvent.created(v1), now.minusSeconds(1)));
+
+		Thread writer = new Thread(() -> recorder.record(new ProductHistory(ProductChangedEvent.updated(v1, v2), now)));
+		writer.start();
+		while (writer.getState() != Thread.State.TIMED_WAITING && writer.isAlive()) {
+			Thread.onSpinWait();
+		}
+		assertThat(recorder.getStats()).containsEntry("queued", 1).containsEntry("blocked", blocked + 1);
+
+		recorder.flush();
+		writer.join(10_000);
+		assertThat(recorder.getStats()).containsEntry("queued", 1);
+		recorder.flush();
+
+		List<ProductHistory> history = productHistoryRepository.findByProductIdAndChangedAtBetweenOrderByChangedAtDescIdDesc(
+				9L, now.minusMinutes(1), now, Limit.of(10));
+		assertThat(history).extracting(ProductHistory::getNewPrice)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("2.00"), new BigDecimal("1.00"));
+	}
+
+	private static ProductState state(String price) {
+		return new ProductState(9L, "Lamp", null, new BigDecimal(price), "Lighting", LocalDateTime.now(), null);
+	}
+}
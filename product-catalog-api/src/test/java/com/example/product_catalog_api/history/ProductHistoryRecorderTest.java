@@ -0,0 +1,73 @@
+package com.example.product_catalog_api.history;
+
+import com.example.product_catalog_api.entity.ProductHistory;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import com.example.product_catalog_api.repository.ProductBatchRepository;
+import com.example.product_catalog_api.repository.ProductHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"catalog.history.capacity=2",
+		"catalog.history.overflow-policy=DROP_OLDEST"})
+@Import({ProductHistoryRecorder.class, ProductBatchRepository.class})
+class ProductHistoryRecorderTest {
+
+	@Autowired
+	private ProductHistoryRecorder recorder;
+
+	@Autowired
+	private ProductHistoryRepository productHistoryRepository;
+
+	@Test
+	void flushWritesOldAndNewValuesAndDropsOldestOnOverflow() {
+		ProductState v1 = state("1.00");
+		ProductState v2 = state("2.00");
+		ProductState v3 = state("3.00");
+		LocalDateTime now = LocalDateTime.now();
+		// the recorder is shared with the other tests, so counters are compared as deltas
+		long dropped = (long) recorder.getStats().get("dropped");
+		long written = (long) recorder.getStats().get("written");
+		recorder.record(new ProductHistory(ProductChangedEvent.created(v1), now.minusSeconds(2)));
+		recorder.record(new ProductHistory(ProductChangedEvent.updated(v1, v2), now.minusSeconds(1)));
+		recorder.record(new ProductHistory(ProductChangedEvent.updated(v2, v3), now));
+		assertThat(recorder.getStats()).containsEntry("queued", 2).containsEntry("dropped", dropped + 1);
+
+		recorder.flush();
+
+		List<ProductHistory> history = productHistoryRepository.findByProductIdAndChangedAtBetweenOrderByChangedAtDescIdDesc(
+				7L, now.minusMinutes(1), now, Limit.of(10));
+		assertThat(history).extracting(ProductHistory::getNewPrice)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("3.00"), new BigDecimal("2.00"));
+		assertThat(history.get(0).getOldPrice()).isEqualByComparingTo("2.00");
+		assertThat(recorder.getStats()).containsEntry("queued", 0).containsEntry("written", written + 2);
+	}
+
+	@Test
+	void timeRangeExcludesOlderChanges() {
+		LocalDateTime now = LocalDateTime.now();
+		recorder.record(new ProductHistory(ProductChangedEvent.created(state("1.00")), now.minusHours(2)));
+		recorder.record(new ProductHistory(ProductChangedEvent.deleted(state("1.00")), now));
+		recorder.flush();
+
+		List<ProductHistory> history = productHistoryRepository.findByProductIdAndChangedAtBetweenOrderByChangedAtDescIdDesc(
+				7L, now.minusHours(1), now, Limit.of(10));
+		assertThat(history).extracting(ProductHistory::getChangeType).containsExactly(ProductChangedEvent.Type.DELETED);
+		assertThat(history.get(0).getNewPrice()).isNull();
+	}
+
+	private static ProductState state(String price) {
+		return new ProductState(7L, "Desk", null, new BigDecimal(price), "Furniture", LocalDateTime.now(), null);
+	}
+}
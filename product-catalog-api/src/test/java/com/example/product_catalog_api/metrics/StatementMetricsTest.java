@@ -0,0 +1,61 @@
+package com.example.product_catalog_api.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementMetricsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final StatementMetrics metrics = new StatementMetrics(registry, Duration.ofMillis(100), 1.0, 1);
+
+	@AfterEach
+	void tearDown() {
+		RequestQueryStats.end();
+	}
+
+	@Test
+	void statementsAreTimedByKindAndCountedForTheRequest() {
+		RequestQueryStats stats = RequestQueryStats.begin();
+		metrics.executed("select * from products where id=?", 1_000, false);
+		metrics.executed("  INSERT INTO products (name) VALUES (?)", 1_000, false);
+		metrics.executed("update products set price=? where id=?", 1_000, true);
+
+		assertThat(stats.getStatements()).isEqualTo(3);
+		assertThat(registry.get("catalog.jdbc.statements").tags("kind", "select", "outcome", "success").timer().count()).isEqualTo(1);
+		assertThat(registry.get("catalog.jdbc.statements").tags("kind", "insert", "outcome", "success").timer().count()).isEqualTo(1);
+		assertThat(registry.get("catalog.jdbc.statements").tags("kind", "update", "outcome", "error").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void repeatedSelectIsReportedAsNPlusOne() {
+		RequestQueryStats stats = RequestQueryStats.begin();
+		metrics.executed("select * from products", 1_000, false);
+		for (int i = 0; i < 10; i++) {
+			metrics.executed("select * from products where id=?", 1_000, false);
+			metrics.executed("insert into product_history values (?)", 1_000, false);
+		}
+
+		Map.Entry<String, Integer> repeated = stats.mostRepeatedSelect(10);
+		assertThat(repeated).isNotNull();
+		assertThat(repeated.getKey()).isEqualTo("select * from products where id=?");
+		assertThat(repeated.getValue()).isEqualTo(10);
+		assertThat(stats.mostRepeatedSelect(11)).isNull();
+	}
+
+	@Test
+	void slowStatementsAreCountedEvenWhenTheLogIsFull() {
+		// the log holds one statement; the second slow one is only counted
+		metrics.executed("select 1", Duration.ofMillis(150).toNanos(), false);
+		metrics.executed("select 2", Duration.ofMillis(150).toNanos(), false);
+		metrics.executed("select 3", Duration.ofMillis(50).toNanos(), false);
+
+		assertThat(registry.get("catalog.jdbc.slow-statements").counter().count()).isEqualTo(2);
+	}
+}
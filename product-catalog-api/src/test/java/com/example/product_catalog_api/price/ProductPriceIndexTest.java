@@ -0,0 +1,77 @@
+package com.example.product_catalog_api.price;
+
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductPriceIndexTest {
+
+	private ProductPriceIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductPriceIndex();
+		add(1L, "Electronics", "25.00");
+		add(2L, "Electronics", "150.00");
+		add(3L, "Furniture", "120.00");
+		add(4L, "Furniture", "399.99");
+		add(5L, null, "80.00");
+		add(6L, "Electronics", "150.00");
+	}
+
+	@Test
+	void rangesAreInclusiveAndCheapestFirst() {
+		assertThat(index.range(null, new BigDecimal("80"), new BigDecimal("150.00"), 10)).containsExactly(5L, 3L, 2L, 6L);
+		// bounds finer than a cent still compare exactly
+		assertThat(index.range(null, new BigDecimal("25.001"), new BigDecimal("149.999"), 10)).containsExactly(5L, 3L);
+		assertThat(index.range("Electronics", null, new BigDecimal("150"), 2)).containsExactly(1L, 2L);
+		assertThat(index.range("Toys", null, null, 10)).isEmpty();
+		assertThat(index.range(null, new BigDecimal("1e30"), null, 10)).isEmpty();
+	}
+
+	@Test
+	void topAndBottomBreakTiesById() {
+		assertThat(index.highest(null, 3)).containsExactly(4L, 6L, 2L);
+		assertThat(index.lowest(null, 2)).containsExactly(1L, 5L);
+		assertThat(index.highest("Furniture", 10)).containsExactly(4L, 3L);
+	}
+
+	@Test
+	void appliesUpdatesAndDeletes() {
+		Product desk = product(3L, "Furniture", "120.00");
+		Product moved = product(3L, "Office", "500.00");
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(desk), moved));
+		index.onProductChanged(ProductChangedEvent.deleted(ProductState.of(product(4L, "Furniture", "399.99"))));
+
+		assertThat(index.highest(null, 1)).containsExactly(3L);
+		assertThat(index.lowest("Office", 10)).containsExactly(3L);
+		assertThat(index.lowest("Furniture", 10)).isEmpty();
+		assertThat(index.size()).isEqualTo(5);
+	}
+
+	@Test
+	void ignoresChangesOlderThanTheIndexedOne() {
+		ProductState office = new ProductState(3L, "Product 3", null, new BigDecimal("500.00"), "Office", null, 1L);
+		ProductState outlet = new ProductState(3L, "Product 3", null, new BigDecimal("90.00"), "Outlet", null, 2L);
+		index.onProductChanged(ProductChangedEvent.updated(office, outlet));
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(product(3L, "Furniture", "120.00")), office));
+
+		assertThat(index.lowest("Office", 10)).isEmpty();
+	}
+
+	private void add(Long id, String category, String price) {
+		index.onProductChanged(ProductChangedEvent.created(product(id, category, price)));
+	}
+
+	private static Product product(Long id, String category, String price) {
+		Product product = new Product("Product " + id, null, new BigDecimal(price), category);
+		product.setId(id);
+		return product;
+	}
+}
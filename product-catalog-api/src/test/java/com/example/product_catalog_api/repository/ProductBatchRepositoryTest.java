@@ -0,0 +1,89 @@
+package com.example.product_catalog_api.repository;
+
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ProductBatchRepository.class)
+class ProductBatchRepositoryTest {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductBatchRepository productBatchRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void updateIfVersionWritesChangedColumnsAndBumpsVersion() {
+		Product product = productRepository.saveAndFlush(new Product("Desk", "Oak", new BigDecimal("100.00"), "Furniture"));
+		assertThat(product.getVersion()).isZero();
+
+		ProductState before = ProductState.of(product);
+		ProductState after = new ProductState(before.id(), before.name(), before.description(),
+				new BigDecimal("90.00"), before.category(), LocalDateTime.now(), 1L);
+
+		assertThat(productBatchRepository.updateIfVersion(before, after, 0L)).isTrue();
+		Map<String, Object> row = jdbcTemplate.queryForMap("SELECT price, version FROM products WHERE id = ?", before.id());
+		assertThat((BigDecimal) row.get("PRICE")).isEqualByComparingTo("90.00");
+		assertThat(((Number) row.get("VERSION")).longValue()).isEqualTo(1L);
+	}
+
+	@Test
+	void updateIfVersionRejectsStaleVersion() {
+		Product product = productRepository.saveAndFlush(new Product("Lamp", null, BigDecimal.TEN, "Furniture"));
+		ProductState before = ProductState.of(product);
+		ProductState after = new ProductState(before.id(), "Desk Lamp", null, BigDecimal.TEN, "Furniture", LocalDateTime.now(), 1L);
+
+		assertThat(productBatchRepository.updateIfVersion(before, after, 0L)).isTrue();
+		assertThat(productBatchRepository.updateIfVersion(before, after, 0L)).isFalse();
+	}
+
+	@Test
+	void batchUpdateSkipsRowsAtAnotherVersion() {
+		Product chair = productRepository.saveAndFlush(new Product("Chair", null, BigDecimal.TEN, "Furniture"));
+		Product table = productRepository.saveAndFlush(new Product("Table", null, BigDecimal.TEN, "Furniture"));
+		jdbcTemplate.update("UPDATE products SET version = version + 1 WHERE id = ?", table.getId());
+
+		Map<Long, ProductBatchRepository.VersionedState> read =
+				productBatchRepository.findVersionedStates(List.of(chair.getId(), table.getId()), true);
+		assertThat(read.get(table.getId()).version()).isEqualTo(1L);
+
+		LocalDateTime now = LocalDateTime.now();
+		int[] counts = productBatchRepository.updateIfVersions(List.of(
+				new ProductState(chair.getId(), "Armchair", null, BigDecimal.TEN, "Furniture", now, 1L),
+				new ProductState(table.getId(), "Desk", null, BigDecimal.TEN, "Furniture", now, 1L)), List.of(0L, 0L));
+		assertThat(counts).containsExactly(1, 0);
+		assertThat(jdbcTemplate.queryForObject("SELECT name FROM products WHERE id = ?", String.class, table.getId()))
+				.isEqualTo("Table");
+	}
+
+	@Test
+	void batchDeleteSkipsRowsAtAnotherVersion() {
+		Product chair = productRepository.saveAndFlush(new Product("Chair", null, BigDecimal.TEN, "Furniture"));
+		Product table = productRepository.saveAndFlush(new Product("Table", null, BigDecimal.TEN, "Furniture"));
+		Map<Long, ProductBatchRepository.VersionedState> read =
+				productBatchRepository.findVersionedStates(List.of(chair.getId(), table.getId()), false);
+		jdbcTemplate.update("UPDATE products SET price = 20, version = version + 1 WHERE id = ?", table.getId());
+
+		int[] counts = productBatchRepository.deleteIfVersions(List.of(
+				read.get(chair.getId()).state(), read.get(table.getId()).state()));
+		assertThat(counts).containsExactly(1, 0);
+		assertThat(productRepository.existsById(chair.getId())).isFalse();
+		assertThat(productRepository.existsById(table.getId())).isTrue();
+	}
+}
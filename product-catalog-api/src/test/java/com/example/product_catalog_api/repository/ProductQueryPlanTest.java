@@ -0,0 +1,215 @@
+package com.example.product_catalog_api.repository;
+
+import com.example.product_catalog_api.entity.Product;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each repository query against the embedded database, captures the SQL
+ * Hibernate generates and checks its EXPLAIN plan, so a query that stops using
+ * its index (a changed query or a dropped @Index) fails the build. Parameters are
+ * inlined before EXPLAIN because, like MySQL at execution time, the planner can
+ * only use an index for LIKE when it sees the pattern.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.example.product_catalog_api.repository.ProductQueryPlanTest$Recorder")
+class ProductQueryPlanTest {
+
+	// Queries that read every row by design; anything else has to be covered by an index test below
+	private static final Set<String> FULL_SCANS = Set.of(
+			"findByNameContainingIgnoreCase", // LIKE '%x%', searches are served by ProductSearchIndex
+			"streamAllOrderById",
+			"streamSummariesOrderById",
+			"sumPrice",
+			"countByCategory",
+			"catalogTotals",
+			"categoryStatistics",
+			"priceHistogram");
+
+	private static final Set<String> INDEXED = Set.of(
+			"findByCategory",
+			"findProductsByCategorySortedByPrice",
+			"findSummariesByCategory",
+			"findSummariesByIdIn",
+			"findByPriceLessThan",
+			"findByPriceBetweenOrderByPriceAscIdAsc",
+			"findByCategoryAndPriceBetweenOrderByPriceAscIdAsc",
+			"findAllByOrderByPriceDescIdDesc",
+			"findByCategoryOrderByPriceDescIdDesc",
+			"findByNameStartingWithOrderByNameAsc",
+			"findByIdGreaterThanOrderByIdAsc",
+			"priceRange");
+
+	public static class Recorder implements StatementInspector {
+		static final List<String> statements = new ArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductHistoryRepository productHistoryRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 200; i++) {
+			productRepository.save(new Product("Product " + i, null, BigDecimal.valueOf(i), "C" + (i % 10)));
+		}
+		productRepository.flush();
+	}
+
+	@Test
+	void everyRepositoryQueryIsClassified() {
+		Set<String> declared = new TreeSet<>();
+		for (Method method : ProductRepository.class.getDeclaredMethods()) {
+			declared.add(method.getName());
+		}
+		Set<String> classified = new TreeSet<>(FULL_SCANS);
+		classified.addAll(INDEXED);
+		assertThat(classified).containsExactlyElementsOf(declared);
+	}
+
+	@Test
+	void findByCategoryUsesCategoryPriceIndex() throws SQLException {
+		productRepository.findByCategory("C1");
+		assertUsesIndex("IDX_PRODUCTS_CATEGORY_PRICE", "C1");
+	}
+
+	@Test
+	void findProductsByCategorySortedByPriceUsesCategoryPriceIndex() throws SQLException {
+		productRepository.findProductsByCategorySortedByPrice("C1");
+		assertUsesIndex("IDX_PRODUCTS_CATEGORY_PRICE", "C1");
+	}
+
+	@Test
+	void findSummariesByCategoryUsesCategoryPriceIndex() throws SQLException {
+		productRepository.findSummariesByCategory("C2");
+		assertUsesIndex("IDX_PRODUCTS_CATEGORY_PRICE", "C2");
+	}
+
+	@Test
+	void findSummariesByIdInUsesPrimaryKey() throws SQLException {
+		productRepository.findSummariesByIdIn(List.of(1L, 2L, 3L));
+		assertUsesIndex("PRIMARY_KEY", 1L, 2L, 3L);
+	}
+
+	@Test
+	void findByPriceLessThanUsesPriceIndex() throws SQLException {
+		productRepository.findByPriceLessThan(BigDecimal.TEN);
+		assertUsesIndex("IDX_PRODUCTS_PRICE", BigDecimal.TEN);
+	}
+
+	@Test
+	void priceBetweenUsesPriceIndex() throws SQLException {
+		productRepository.findByPriceBetweenOrderByPriceAscIdAsc(BigDecimal.ONE, BigDecimal.TEN, Limit.of(5));
+		assertUsesIndex("IDX_PRODUCTS_PRICE", BigDecimal.ONE, BigDecimal.TEN, 5);
+	}
+
+	@Test
+	void categoryPriceBetweenUsesCategoryPriceIndex() throws SQLException {
+		productRepository.findByCategoryAndPriceBetweenOrderByPriceAscIdAsc("C1", BigDecimal.ONE, BigDecimal.TEN, Limit.of(5));
+		assertUsesIndex("IDX_PRODUCTS_CATEGORY_PRICE", "C1", BigDecimal.ONE, BigDecimal.TEN, 5);
+	}
+
+	@Test
+	void mostExpensiveUsesPriceIndex() throws SQLException {
+		productRepository.findAllByOrderByPriceDescIdDesc(Limit.of(5));
+		assertUsesIndex("IDX_PRODUCTS_PRICE", 5);
+	}
+
+	@Test
+	void mostExpensiveInCategoryUsesCategoryPriceIndex() throws SQLException {
+		productRepository.findByCategoryOrderByPriceDescIdDesc("C1", Limit.of(5));
+		assertUsesIndex("IDX_PRODUCTS_CATEGORY_PRICE", "C1", 5);
+	}
+
+	@Test
+	void nameStartingWithUsesNameIndex() throws SQLException {
+		productRepository.findByNameStartingWithOrderByNameAsc("Product 1", Limit.of(5));
+		assertUsesIndex("IDX_PRODUCTS_NAME", "Product 1%", 5);
+	}
+
+	@Test
+	void keysetPageUsesPrimaryKey() throws SQLException {
+		productRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(10));
+		assertUsesIndex("PRIMARY_KEY", 5L, 10);
+	}
+
+	@Test
+	void priceRangeUsesPriceIndex() throws SQLException {
+		productRepository.priceRange();
+		assertUsesIndex("IDX_PRODUCTS_PRICE");
+	}
+
+	@Test
+	void productHistoryRangeUsesProductTimeIndex() throws SQLException {
+		LocalDateTime to = LocalDateTime.of(2030, 1, 1, 0, 0);
+		productHistoryRepository.findByProductIdAndChangedAtBetweenOrderByChangedAtDescIdDesc(
+				1L, to.minusDays(1), to, Limit.of(10));
+		assertUsesIndex("IDX_PRODUCT_HISTORY_PRODUCT_TIME", 1L, "2029-12-31 00:00:00", "2030-01-01 00:00:00", 10);
+	}
+
+	private void assertUsesIndex(String index, Object... parameters) throws SQLException {
+		String plan = explainLastQuery(parameters);
+		assertThat(plan).doesNotContain("tableScan").contains(index);
+	}
+
+	private String explainLastQuery(Object... parameters) throws SQLException {
+		String sql = Recorder.statements.stream()
+				.filter(statement -> statement.startsWith("select"))
+				.reduce((first, second) -> second)
+				.orElseThrow();
+		Recorder.statements.clear();
+
+		try (Connection connection = dataSource.getConnection();
+			 Statement statement = connection.createStatement();
+			 ResultSet plan = statement.executeQuery("EXPLAIN " + inline(sql, parameters))) {
+			plan.next();
+			return plan.getString(1);
+		}
+	}
+
+	private static String inline(String sql, Object... parameters) {
+		StringBuilder result = new StringBuilder();
+		List<Object> remaining = new ArrayList<>(Arrays.asList(parameters));
+		for (char c : sql.toCharArray()) {
+			if (c == '?') {
+				Object value = remaining.remove(0);
+				result.append(value instanceof String text ? "'" + text.replace("'", "''") + "'" : value);
+			} else {
+				result.append(c);
+			}
+		}
+		assertThat(remaining).as("unused parameters").isEmpty();
+		return result.toString();
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.product_catalog_api.search;
+
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex();
+		add(1L, "Wireless Keyboard", "Compact layout", "Electronics");
+		add(2L, "Gaming Mouse", "Works with any keyboard", "Electronics");
+		add(3L, "Standing Desk", "Oak top", "Furniture");
+	}
+
+	@Test
+	void matchesPrefixAndSubstring() {
+		assertThat(ids("wire", 10)).containsExactly(1L);
+		assertThat(ids("ouse", 10)).containsExactly(2L);
+		assertThat(ids("urn", 10)).containsExactly(3L);
+	}
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		assertThat(ids("keyboard", 10)).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void requiresEveryQueryTerm() {
+		assertThat(ids("electronics mouse", 10)).containsExactly(2L);
+		assertThat(ids("desk mouse", 10)).isEmpty();
+	}
+
+	@Test
+	void appliesUpdatesAndDeletes() {
+		Product desk = product(3L, "Standing Desk", "Oak top", "Furniture");
+		Product renamed = product(3L, "Standing Table", "Oak top", "Furniture");
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(desk), renamed));
+		assertThat(ids("desk", 10)).isEmpty();
+		assertThat(ids("table", 10)).containsExactly(3L);
+
+		index.onProductChanged(ProductChangedEvent.deleted(ProductState.of(renamed)));
+		assertThat(ids("table", 10)).isEmpty();
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	@Test
+	void honoursLimitAndCountsEveryMatch() {
+		ProductSearchIndex.Hits hits = index.search("oa", 2);
+		assertThat(hits.ids()).hasSize(2);
+		assertThat(hits.total()).isEqualTo(3);
+	}
+
+	@Test
+	void singleCharacterMatchesSubstringsWholeTermsFirst() {
+		add(4L, "Plan A", "Poster", "Prints");
+		assertThat(ids("a", 10)).startsWith(4L).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+		assertThat(ids("k", 10)).containsExactlyInAnyOrder(1L, 2L, 3L);
+		assertThat(ids("z", 10)).isEmpty();
+	}
+
+	@Test
+	void nameSearchIgnoresOtherFields() {
+		assertThat(index.searchNames("keyboard", 10).ids()).containsExactly(1L);
+		assertThat(index.searchNames("electronics", 10).ids()).isEmpty();
+	}
+
+	@Test
+	void ignoresChangesOlderThanTheIndexedOne() {
+		ProductState table = new ProductState(3L, "Standing Table", "Oak top", BigDecimal.TEN, "Furniture", null, 1L);
+		ProductState bench = new ProductState(3L, "Standing Bench", "Oak top", BigDecimal.TEN, "Furniture", null, 2L);
+		index.onProductChanged(ProductChangedEvent.updated(table, bench));
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(product(3L, "Standing Desk", "Oak top", "Furniture")), table));
+
+		assertThat(ids("table", 10)).isEmpty();
+	}
+
+	private List<Long> ids(String query, int limit) {
+		return index.search(query, limit).ids();
+	}
+
+	private void add(Long id, String name, String description, String category) {
+		index.onProductChanged(ProductChangedEvent.created(product(id, name, description, category)));
+	}
+
+	private static Product product(Long id, String name, String description, String category) {
+		Product product = new Product(name, description, BigDecimal.TEN, category);
+		product.setId(id);
+		return product;
+	}
+}
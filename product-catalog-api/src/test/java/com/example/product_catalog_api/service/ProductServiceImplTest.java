@@ -0,0 +1,62 @@
+package com.example.product_catalog_api.service;
+
+import com.example.product_catalog_api.cache.ProductCache;
+import com.example.product_catalog_api.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductServiceImplTest {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductCache productCache;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void putMatchingAStaleCachedCopyStillOverwritesTheNewerRow() {
+		Product product = cachedThenChangedElsewhere("Desk");
+
+		Product updated = productService.updateProduct(product.getId(),
+				new Product("Desk", "Oak", new BigDecimal("100.00"), "Furniture"));
+
+		assertThat(updated.getVersion()).isEqualTo(2L);
+		Map<String, Object> row = jdbcTemplate.queryForMap("SELECT price, version FROM products WHERE id = ?", product.getId());
+		assertThat((BigDecimal) row.get("PRICE")).isEqualByComparingTo("100.00");
+		assertThat(((Number) row.get("VERSION")).longValue()).isEqualTo(2L);
+	}
+
+	@Test
+	void patchAtAStaleCachedVersionIsRejected() {
+		Product product = cachedThenChangedElsewhere("Chair");
+		Product changes = new Product(null, null, new BigDecimal("100.00"), null);
+		changes.setVersion(0L);
+
+		assertThatThrownBy(() -> productService.patchProduct(product.getId(), changes))
+				.isInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(jdbcTemplate.queryForObject("SELECT price FROM products WHERE id = ?", BigDecimal.class, product.getId()))
+				.isEqualByComparingTo("80.00");
+	}
+
+	// The cache holds version 0 while another node has already moved the row to version 1
+	private Product cachedThenChangedElsewhere(String name) {
+		Product product = productService.createProduct(new Product(name, "Oak", new BigDecimal("100.00"), "Furniture"));
+		productCache.get(product.getId(), id -> Optional.of(product));
+		jdbcTemplate.update("UPDATE products SET price = 80.00, version = version + 1 WHERE id = ?", product.getId());
+		return product;
+	}
+}
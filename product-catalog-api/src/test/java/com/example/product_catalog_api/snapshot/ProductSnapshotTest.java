@@ -0,0 +1,106 @@
+package com.example.product_catalog_api.snapshot;
+
+import com.example.product_catalog_api.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSnapshotTest {
+
+	private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+
+	@TempDir
+	private Path directory;
+
+	private ProductSnapshot snapshot;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		ProductSnapshotWriter writer = new ProductSnapshotWriter();
+		writer.add(3, "Oak Desk", "Solid oak", new BigDecimal("250.00"), "Furniture", CREATED, null, 2);
+		writer.add(7, "Desk Lamp", null, new BigDecimal("19.99"), "Lighting", CREATED, CREATED, 0);
+		writer.add(9, "Ätherlampe", "Café", new BigDecimal("5"), "Lighting", null, null, 0);
+		writer.add(12, "Standing desk", null, new BigDecimal("400.10"), "Furniture", CREATED, CREATED, 1);
+		writer.add(15, "Gift card", null, BigDecimal.ZERO, null, CREATED, CREATED, 0);
+		Path file = directory.resolve("products.snapshot");
+		writer.write(file, 42L);
+		snapshot = ProductSnapshot.open(file);
+	}
+
+	@Test
+	void productsRoundTripById() {
+		Product desk = snapshot.findProduct(3).orElseThrow();
+		assertThat(desk.getName()).isEqualTo("Oak Desk");
+		assertThat(desk.getDescription()).isEqualTo("Solid oak");
+		assertThat(desk.getPrice()).isEqualTo(new BigDecimal("250.00"));
+		assertThat(desk.getCategory()).isEqualTo("Furniture");
+		assertThat(desk.getCreatedAt()).isEqualTo(CREATED);
+		assertThat(desk.getUpdatedAt()).isNull();
+		assertThat(desk.getVersion()).isEqualTo(2L);
+
+		Product lamp = snapshot.findProduct(9).orElseThrow();
+		assertThat(lamp.getName()).isEqualTo("Ätherlampe");
+		assertThat(lamp.getPrice()).isEqualTo(new BigDecimal("5.00"));
+		assertThat(snapshot.findProduct(15).orElseThrow().getCategory()).isNull();
+
+		assertThat(snapshot.findProduct(4)).isEmpty();
+		assertThat(snapshot.findProduct(100)).isEmpty();
+		assertThat(snapshot.getBuiltAt()).isEqualTo(42L);
+	}
+
+	@Test
+	void blankCategoriesAreNoCategory() throws IOException {
+		ProductSnapshotWriter writer = new ProductSnapshotWriter();
+		writer.add(1, "Desk", null, BigDecimal.TEN, "Furniture", CREATED, CREATED, 0);
+		writer.add(2, "Mug", null, BigDecimal.ONE, "", CREATED, CREATED, 0);
+		writer.add(3, "Pen", null, BigDecimal.ONE, "  ", CREATED, CREATED, 0);
+		Path file = directory.resolve("blank.snapshot");
+		writer.write(file, 42L);
+		ProductSnapshot blank = ProductSnapshot.open(file);
+
+		assertThat(blank.categoryCount()).isEqualTo(1);
+		assertThat(blank.categoryName(0)).isEqualTo("Furniture");
+		assertThat(blank.findProduct(3).orElseThrow().getCategory()).isNull();
+	}
+
+	@Test
+	void categoriesListTheirProductsByPrice() {
+		assertThat(snapshot.findByCategory("Furniture")).extracting(Product::getId).containsExactly(3L, 12L);
+		assertThat(snapshot.findByCategory("Lighting")).extracting(Product::getId).containsExactly(9L, 7L);
+		assertThat(snapshot.findByCategory("lighting")).isEmpty();
+		assertThat(snapshot.findByCategory(null)).isEmpty();
+		assertThat(snapshot.findSummariesByCategory("Furniture")).extracting(s -> s.name())
+				.containsExactly("Oak Desk", "Standing desk");
+	}
+
+	@Test
+	void nameSearchIgnoresCaseAndCountsPastTheLimit() {
+		assertThat(snapshot.searchByName("DESK", 10).rows()).containsExactly(0, 1, 3);
+		assertThat(snapshot.searchByName("desk", 2).rows()).containsExactly(0, 1);
+		assertThat(snapshot.searchByName("desk", 2).total()).isEqualTo(3);
+		assertThat(snapshot.searchByName("äther", 10).rows()).containsExactly(2);
+		assertThat(snapshot.searchByName("chair", 10).rows()).isEmpty();
+	}
+
+	@Test
+	void totalsAndCategoryFiguresAreInCents() {
+		assertThat(snapshot.size()).isEqualTo(5);
+		assertThat(snapshot.priceSum()).isEqualTo(25000 + 1999 + 500 + 40010);
+		assertThat(snapshot.minPrice()).isZero();
+		assertThat(snapshot.maxPrice()).isEqualTo(40010);
+		assertThat(snapshot.categoryCount()).isEqualTo(2);
+
+		assertThat(snapshot.categoryName(0)).isEqualTo("Furniture");
+		assertThat(snapshot.categoryProductCount(0)).isEqualTo(2);
+		assertThat(snapshot.categoryPriceSum(0)).isEqualTo(65010);
+		assertThat(snapshot.categoryMinPrice(1)).isEqualTo(500);
+		assertThat(snapshot.categoryMaxPrice(1)).isEqualTo(1999);
+	}
+}
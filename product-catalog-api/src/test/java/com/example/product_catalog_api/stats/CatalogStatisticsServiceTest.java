@@ -0,0 +1,81 @@
+package com.example.product_catalog_api.stats;
+
+import com.example.product_catalog_api.cache.CatalogVersion;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.repository.ProductRepository;
+import com.example.product_catalog_api.snapshot.ProductSnapshotStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class CatalogStatisticsServiceTest {
+
+	@Autowired
+	private CatalogStatisticsService catalogStatisticsService;
+
+	@Autowired
+	private ProductSnapshotStore productSnapshotStore;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@TempDir
+	private Path directory;
+
+	private List<Product> saved;
+
+	@AfterEach
+	void tearDown() {
+		ReflectionTestUtils.setField(catalogStatisticsService, "productSnapshotStore", productSnapshotStore);
+		productRepository.deleteAll(saved);
+	}
+
+	@Test
+	void databaseAndSnapshotListTheSameCategoriesInTheSameOrder() {
+		saved = productRepository.saveAll(List.of(
+				new Product("Lamp", null, new BigDecimal("20.00"), "Stats Lighting"),
+				new Product("Bulb", null, new BigDecimal("2.00"), "Stats Lighting"),
+				new Product("Desk", null, new BigDecimal("100.00"), "Stats Furniture"),
+				new Product("Chair", null, new BigDecimal("50.00"), "Stats Furniture"),
+				new Product("Pen", null, new BigDecimal("1.00"), "Stats Office"),
+				new Product("Mug", null, new BigDecimal("4.00"), ""),
+				new Product("Cup", null, new BigDecimal("4.00"), "  "),
+				new Product("Gift card", null, new BigDecimal("10.00"), null)));
+
+		List<CatalogStatistics.CategoryStats> fromDatabase =
+				catalogStatisticsService.getStatistics(true, false, null).getCategories();
+
+		ProductSnapshotStore snapshotStore = new ProductSnapshotStore(dataSource, catalogVersion, true, directory, 1000);
+		snapshotStore.refresh();
+		ReflectionTestUtils.setField(catalogStatisticsService, "productSnapshotStore", snapshotStore);
+		List<CatalogStatistics.CategoryStats> fromSnapshot =
+				catalogStatisticsService.getStatistics(true, false, null).getCategories();
+
+		assertThat(fromDatabase).extracting(CatalogStatistics.CategoryStats::category)
+				.doesNotContainNull()
+				.noneMatch(String::isBlank)
+				.containsSubsequence("Stats Furniture", "Stats Lighting", "Stats Office");
+		assertThat(fromDatabase).extracting(CatalogStatistics.CategoryStats::category, CatalogStatistics.CategoryStats::count)
+				.containsExactlyElementsOf(fromSnapshot.stream()
+						.map(stats -> tuple(stats.category(), stats.count()))
+						.toList());
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.product_catalog_api.suggest;
+
+import com.example.product_catalog_api.dto.ProductSuggestion;
+import com.example.product_catalog_api.entity.Product;
+import com.example.product_catalog_api.event.ProductChangedEvent;
+import com.example.product_catalog_api.event.ProductState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSuggestIndexTest {
+
+	private ProductSuggestIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSuggestIndex();
+		add(1L, "Wireless Mouse", "Electronics");
+		add(2L, "Wired Mouse", "Electronics");
+		add(3L, "Mouse Pad", "Office");
+		add(4L, "Wireless  Keyboard", "Electronics");
+		add(5L, "Desk", "Office");
+	}
+
+	@Test
+	void completesEveryWordStartOnce() {
+		assertThat(index.suggest("mou", 10)).extracting(ProductSuggestion::text)
+				.containsExactlyInAnyOrder("Wireless Mouse", "Wired Mouse", "Mouse Pad");
+		assertThat(index.suggest("WIRELESS k", 10)).extracting(ProductSuggestion::text)
+				.containsExactly("Wireless  Keyboard");
+		assertThat(index.suggest("wire ", 10)).isEmpty();
+		assertThat(index.suggest("  ", 10)).isEmpty();
+	}
+
+	@Test
+	void ranksByProductsAndViews() {
+		// three Electronics products outweigh any single name
+		assertThat(index.suggest("e", 1)).containsExactly(new ProductSuggestion("Electronics", "category", 3, 3));
+
+		for (int i = 0; i < 5; i++) {
+			index.viewed(3L);
+		}
+		index.applyViews();
+		assertThat(index.suggest("m", 2)).extracting(ProductSuggestion::text).containsExactly("Mouse Pad", "Wireless Mouse");
+		assertThat(index.suggest("o", 1)).containsExactly(new ProductSuggestion("Office", "category", 2, 7));
+	}
+
+	@Test
+	void appliesUpdatesAndDeletes() {
+		Map<String, Object> before = structure(index);
+		Product pad = product(3L, "Mouse Pad", "Office");
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(pad), product(3L, "Gaming Mat", "Office")));
+		assertThat(index.suggest("mouse p", 10)).isEmpty();
+		assertThat(index.suggest("mat", 10)).extracting(ProductSuggestion::text).containsExactly("Gaming Mat");
+
+		// putting it back leaves the trie exactly as it was
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(product(3L, "Gaming Mat", "Office")), pad));
+		assertThat(structure(index)).isEqualTo(before);
+
+		index.onProductChanged(ProductChangedEvent.deleted(ProductState.of(product(5L, "Desk", "Office"))));
+		assertThat(index.suggest("d", 10)).isEmpty();
+		assertThat(index.suggest("office", 10)).containsExactly(new ProductSuggestion("Office", "category", 1, 1));
+		assertThat(index.getStats()).containsEntry("products", 4).containsEntry("names", 4);
+	}
+
+	@Test
+	void matchesBruteForceAfterRandomChanges() {
+		String[] words = {"a", "ab", "abc", "b", "ba", "bab", "c"};
+		Random random = new Random(7);
+		Map<Long, Product> products = new HashMap<>();
+		index = new ProductSuggestIndex();
+		for (int i = 0; i < 2000; i++) {
+			long id = random.nextInt(60);
+			Product before = products.get(id);
+			if (before != null && random.nextInt(4) == 0) {
+				index.onProductChanged(ProductChangedEvent.deleted(ProductState.of(before)));
+				products.remove(id);
+				continue;
+			}
+			String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+			Product after = product(id, name, random.nextBoolean() ? null : words[random.nextInt(words.length)]);
+			index.onProductChanged(before == null ? ProductChangedEvent.created(after)
+					: ProductChangedEvent.updated(ProductState.of(before), after));
+			products.put(id, after);
+		}
+
+		ProductSuggestIndex fresh = new ProductSuggestIndex();
+		products.values().forEach(product -> fresh.onProductChanged(ProductChangedEvent.created(product)));
+		assertThat(structure(index)).isEqualTo(structure(fresh));
+		for (String prefix : List.of("a", "ab", "b", "ba", "bab ", "c a", "abc b")) {
+			Set<String> expected = new HashSet<>();
+			for (Product product : products.values()) {
+				for (String text : new String[]{product.getName(), product.getCategory()}) {
+					if (text != null && (text.startsWith(prefix) || text.contains(" " + prefix))) {
+						expected.add(text);
+					}
+				}
+			}
+			assertThat(index.suggest(prefix, 1000)).extracting(ProductSuggestion::text)
+					.as(prefix).containsExactlyInAnyOrderElementsOf(expected);
+		}
+	}
+
+	@Test
+	void ignoresChangesOlderThanTheIndexedOne() {
+		ProductState mat = new ProductState(3L, "Gaming Mat", null, BigDecimal.ONE, "Office", null, 1L);
+		ProductState rug = new ProductState(3L, "Desk Rug", null, BigDecimal.ONE, "Office", null, 2L);
+		index.onProductChanged(ProductChangedEvent.updated(mat, rug));
+		index.onProductChanged(ProductChangedEvent.updated(ProductState.of(product(3L, "Mouse Pad", "Office")), mat));
+
+		assertThat(index.suggest("mat", 10)).isEmpty();
+	}
+
+	private void add(Long id, String name, String category) {
+		index.onProductChanged(ProductChangedEvent.created(product(id, name, category)));
+	}
+
+	private static Product product(Long id, String name, String category) {
+		Product product = new Product(name, null, BigDecimal.ONE, category);
+		product.setId(id);
+		return product;
+	}
+
+	// the label buffer keeps garbage until it is compacted, so its size depends on the path taken
+	private static Map<String, Object> structure(ProductSuggestIndex index) {
+		Map<String, Object> stats = new HashMap<>(index.getStats());
+		stats.remove("labelBufferChars");
+		stats.remove("estimatedBytes");
+		return stats;
+	}
+}